@@ -10,6 +10,17 @@ public class BatchQuizResultDto {
     private Long totalStudents;      // Total enrolled in batch
     private Integer studentsCompleted; // How many submitted
     private Double averagePercentage;
+    private Double medianPercentage;
+    private Double p25Percentage;
+    private Double p75Percentage;
+    private Double p90Percentage;
+    private Double passRate;          // % of submissions at or above passing marks
+    private List<Long> histogram;     // submissions per 10% score band, 0-9% first
+
+    // Paging of studentResults
+    private Integer page;
+    private Integer size;
+    private Integer totalPages;
 
     // The Table Data
     private List<StudentResultItemDto> studentResults;
@@ -0,0 +1,15 @@
+package com.projectJava.quizApp.DTO;
+
+// Summary rows for the instructor dashboard; each one is a GROUP BY result, never a QResult entity
+public final class DashboardAggregates {
+
+    private DashboardAggregates() {
+    }
+
+    // One row per quiz title (titles, not ids, label the bar chart)
+    public interface QuizAggregate {
+        String getTitle();
+        Long getAttempts();
+        Double getPctSum();
+    }
+}
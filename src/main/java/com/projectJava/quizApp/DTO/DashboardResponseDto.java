@@ -21,4 +21,7 @@ public class DashboardResponseDto {
     // 4. Tables
     private List<StudentPerformanceDto> topStudents;
     private List<StudentPerformanceDto> studentsNeedingAttention;
+
+    // True when a section could not be loaded in time and shows empty data
+    private boolean partial;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.projectJava.quizApp.DTO;
+
+// One active enrollment with its instructor, for the student dashboard (no entity graph is loaded)
+public interface EnrollmentSummary {
+    Long getBatchId();
+    Long getInstructorId();
+    String getInstructorName();
+    String getInstructorEmail();
+}
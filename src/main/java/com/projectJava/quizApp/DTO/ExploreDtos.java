@@ -3,6 +3,9 @@ package com.projectJava.quizApp.DTO;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+import java.util.Map;
+
 public class ExploreDtos {
 
     @Data
@@ -12,7 +15,15 @@ public class ExploreDtos {
         private String description; // e.g. "OOP principles..."
         private String icon;        // e.g. "pi pi-code"
         private String tag;         // e.g. "Programming"
-        private long quizCount;     // Extra: Show how many quizzes exist
+        private long quizCount;     // Published public quizzes
+        private Map<String, Long> difficulties; // e.g. {"Easy": 3, "Hard": 1}
+    }
+
+    // Published public quiz count of one (subject, difficulty) pair
+    public interface SubjectDifficultyCount {
+        String getSubject();
+        String getDifficulty();
+        Long getQuizCount();
     }
 
     @Data
@@ -22,7 +33,40 @@ public class ExploreDtos {
         private String title;
         private String category;    // Subject
         private String difficulty;  // "Easy", "Medium", "Hard"
-        private long attempts;      // Based on QResult count
-        private double rating;      // Mocked or calculated
+        private long attempts;      // Finalized attempts (QuizPopularity)
+        private double rating;      // Average stars, 0 while unrated
+        private long ratingCount;
+    }
+
+    // One quiz with its popularity counters, read in a single query
+    public interface TrendingQuizRow {
+        Long getId();
+        String getTitle();
+        String getSubject();
+        String getDifficulty();
+        Integer getTotalMarks();
+        Integer getPassingMarks();
+        Long getAttempts();
+        Long getRatingSum();
+        Long getRatingCount();
+    }
+
+    @Data
+    @Builder
+    public static class QuizSearchResultDto {
+        private Long id;
+        private String title;
+        private String category;
+        private String difficulty;
+        private String description;
+        private long matchedQuestions; // Questions of the quiz that match too
+        private float rank;
+    }
+
+    @Data
+    @Builder
+    public static class QuizSearchPageDto {
+        private List<QuizSearchResultDto> results;
+        private String nextCursor;     // Pass back as ?cursor= for the next page; null on the last page
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.projectJava.quizApp.DTO;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ItemAnalysisDto {
+    private Long quizId;
+    private String quizTitle;
+    private Long attempts;            // finalized attempts the indexes are based on
+    private Double averagePercentage;
+
+    private List<ItemDto> items = new ArrayList<>();
+
+    @Data
+    public static class ItemDto {
+        private Long questionId;
+        private String questionTitle;
+        private String rightAnswer;
+
+        private Long answered;
+        private Long correct;
+        private Long skipped;           // attempts that left the question blank
+
+        private Double difficulty;      // share of attempts answering correctly (0-1, higher = easier)
+        private Double discrimination;  // point-biserial correlation with the attempt score (-1..1), null if undefined
+
+        private List<OptionDto> options = new ArrayList<>();
+        private Long otherAnswers;      // answers matching none of the options
+
+        private List<String> flags = new ArrayList<>(); // TOO_EASY, TOO_HARD, LOW_DISCRIMINATION, NEGATIVE_DISCRIMINATION, MISLEADING_OPTION
+    }
+
+    @Data
+    public static class OptionDto {
+        private Integer index;          // 1-4
+        private String text;
+        private Boolean correct;
+        private Long picks;
+        private Double share;           // picks / attempts
+    }
+}
@@ -0,0 +1,15 @@
+package com.projectJava.quizApp.DTO;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// The caller's own standing with the players ranked just above and below
+@Data
+@Builder
+public class LeaderboardPositionDto {
+    private LeaderboardDto me;              // null until the user has finished a public quiz
+    private List<LeaderboardDto> neighbors; // includes "me"
+    private int totalPlayers;
+}
@@ -0,0 +1,33 @@
+package com.projectJava.quizApp.DTO;
+
+import java.time.LocalDateTime;
+
+// Rows for the batch quiz results page: flat result rows and one summary row, both computed in SQL
+public final class QuizResultAggregates {
+
+    private QuizResultAggregates() {
+    }
+
+    public interface ResultRow {
+        Long getStudentId();
+        String getStudentName();
+        String getStudentEmail();
+        Integer getScore();
+        Integer getTotalMarks();
+        Double getPercentage();
+        LocalDateTime getSubmittedAt();
+        Long getTimeTaken(); // seconds
+    }
+
+    // Percent-based statistics over all finalized attempts; null fields when nobody has submitted
+    public interface Summary {
+        Long getCompleted();
+        Double getAverage();
+        Double getMedian();
+        Double getP25();
+        Double getP75();
+        Double getP90();
+        Double getPassRate();
+        String getHistogram(); // ten comma-separated counts: 0-9%, 10-19%, ... 90-100%
+    }
+}
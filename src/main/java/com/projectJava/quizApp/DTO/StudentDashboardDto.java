@@ -16,4 +16,7 @@ public class StudentDashboardDto {
     // Charts
     private ChartDataDto performanceComparison;
     private ChartDataDto quizCompletion;
+
+    // True when a section could not be loaded in time and shows empty data
+    private boolean partial;
 }
\ No newline at end of file
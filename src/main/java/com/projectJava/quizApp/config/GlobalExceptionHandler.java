@@ -1,5 +1,7 @@
 package com.projectJava.quizApp.config;
 
+import com.projectJava.quizApp.exception.ConflictException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,7 +22,23 @@ public class GlobalExceptionHandler {
                 .body(Map.of("message", ex.getMessage()));
     }
 
-    // 2. Handles 404 (Wrong URL)
+    // 2. Handles unique-constraint races (e.g. the same submission arriving twice at once)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(DataIntegrityViolationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "This request conflicts with one that was already processed"));
+    }
+
+    // 3. Handles explicit conflicts (e.g. submitting an attempt that was already submitted)
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, String>> handleExplicitConflict(ConflictException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("message", ex.getMessage()));
+    }
+
+    // 4. Handles 404 (Wrong URL)
     @ExceptionHandler(NoHandlerFoundException.class)
     public ResponseEntity<?> handleNotFound(NoHandlerFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -1,9 +1,9 @@
 package com.projectJava.quizApp.config;
 
-import com.projectJava.quizApp.model.Customer;
-import com.projectJava.quizApp.repo.UserRepo;
-import com.projectJava.quizApp.service.CustomUserDetailsService;
+import com.projectJava.quizApp.model.AuthUser;
+import com.projectJava.quizApp.service.UserSecurityStateCache;
 import com.projectJava.quizApp.utility.JWTUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,18 +12,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.Date;
-import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -34,10 +30,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JWTUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
-
-    @Autowired
-    private UserRepo userRepo;
+    private UserSecurityStateCache userSecurityStateCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
@@ -68,6 +61,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = null;
         String username = null;
+        Claims claims = null;
 
         try {
             String authHeader = request.getHeader("Authorization");
@@ -87,7 +81,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             if (token != null) {
-                username = jwtUtil.extractUsername(token);
+                // Verified once here; everything below reads from these claims
+                claims = jwtUtil.extractAllClaims(token);
+                username = claims.getSubject();
                 log.debug("Extracted username from token: {}", username);
             }
         } catch (Exception ex) {
@@ -96,43 +92,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(token, userDetails)) {
-                    try {
-                        Date tokenIssuedAt = jwtUtil.extractIssuedAt(token);
-                        Instant tokenIat = (tokenIssuedAt == null) ? null : tokenIssuedAt.toInstant();
-
-                        Optional<Customer> customerOpt = userRepo.findByUsername(username);
-                        if(customerOpt.isPresent()){
-                            Customer customer = customerOpt.get();
-                            Instant passwordChangedAt = customer.getPasswordChangedAt();
-                            if(passwordChangedAt != null && tokenIat !=null && tokenIat.isBefore(passwordChangedAt)){
-                                log.info("Rejecting JWT for user {}: token iat {} is before passwordChangedAt {}",
-                                        username, tokenIat, passwordChangedAt);
-                            }
-                            else{
-                                String role = jwtUtil.extractRole(token);
-                                var authorities = Collections.singletonList(
-                                        new SimpleGrantedAuthority("ROLE_" + role)
-                                );
-
-                                UsernamePasswordAuthenticationToken authToken =
-                                        new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
-
-                                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                SecurityContextHolder.getContext().setAuthentication(authToken);
-                                log.debug("Successfully authenticated user: {}", username);
-
-                            }
-                        }else{
-                            log.warn("User {} not found while checking passwordChangedAt", username);
-                        }
-                    }catch (Exception e){
-                        log.warn("Error while validating token issued-at vs passwordChangedAt: {}", e.getMessage());
+                // Signature and expiry were verified while extracting the subject; authorities come from
+                // the signed role claim, and the account checks from a cache, so no user query is made here
+                UserSecurityStateCache.State state = userSecurityStateCache.get(username);
+                Date tokenIssuedAt = claims.getIssuedAt();
+                Instant tokenIat = (tokenIssuedAt == null) ? null : tokenIssuedAt.toInstant();
+                String role = claims.get("role", String.class);
+
+                if (state == null) {
+                    log.warn("User {} not found while checking token", username);
+                } else if (!state.verified()) {
+                    log.debug("Rejecting JWT for unverified user {}", username);
+                } else if (state.deletedAt() != null) {
+                    log.info("Rejecting JWT for user {}: account deleted at {}", username, state.deletedAt());
+                } else if (!state.isIssuedAfterPasswordChange(tokenIat)) {
+                    log.info("Rejecting JWT for user {}: token iat {} is before passwordChangedAt {}",
+                            username, tokenIat, state.passwordChangedAt());
+                } else if (!state.hasRole(role)) {
+                    log.info("Rejecting JWT for user {}: role claim {} no longer matches role {}",
+                            username, role, state.role());
+                } else {
+                    Long userId = claims.get("uid", Long.class);
+                    if (userId == null) {
+                        userId = state.id(); // token issued before the uid claim
                     }
 
-                } else {
-                    log.debug("JWT validation failed for user: {}", username);
+                    // Services read id and role from this principal instead of looking the user up
+                    AuthUser principal = AuthUser.fromToken(userId, username, role);
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    log.debug("Successfully authenticated user: {}", username);
                 }
             } catch (Exception ex) {
                 log.warn("Could not set user authentication: {}", ex.getMessage());
@@ -8,6 +8,7 @@ import com.projectJava.quizApp.service.CustomUserDetailsService;
 import com.projectJava.quizApp.service.CustomerService;
 import com.projectJava.quizApp.service.OtpService;
 import com.projectJava.quizApp.service.RefreshTokenService;
+import com.projectJava.quizApp.service.UserSecurityStateCache;
 import com.projectJava.quizApp.utility.JWTUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -45,6 +46,9 @@ public class AuthController {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private UserSecurityStateCache userSecurityStateCache;
+
     @Autowired private RefreshTokenService refreshTokenService;
 
     @Autowired
@@ -89,6 +93,7 @@ public class AuthController {
                 // Scenario: Within 30 days -> AUTO-REACTIVATE
                 customer.setDeletedAt(null);
                 userRepo.save(customer);
+                userSecurityStateCache.evict(customer.getUsername());
                 // You might want to add a header or message indicating restoration
                 System.out.println("Account reactivated for user: " + username);
             }
@@ -205,6 +210,7 @@ public class AuthController {
             Customer user = userRepo.findByEmail(email).orElseThrow();
             user.setVerified(true);
             userRepo.save(user);
+            userSecurityStateCache.evict(user.getUsername());
             // load user details and generate JWT so client can use it immediately
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
             String token = jwtUtil.generateToken(userDetails);
@@ -271,6 +277,7 @@ public class AuthController {
             customer2.setPassword(passwordEncoder.encode(password)); // BCrypt
         }
         userRepo.save(customer2);
+        userSecurityStateCache.evict(customer2.getUsername());
         return ResponseEntity.accepted().body("Profile Updated");
     }
     @PatchMapping("updateRole")
@@ -285,6 +292,7 @@ public class AuthController {
             Customer customer1 = customer.get();
             customer1.setRole(role);
             userRepo.save(customer1);
+            userSecurityStateCache.evict(customer1.getUsername());
         }
         else{
             return new ResponseEntity<>("User Not Found",HttpStatus.NOT_FOUND);
@@ -403,6 +411,7 @@ public class AuthController {
         // Soft Delete: Set timestamp
         customer.setDeletedAt(Instant.now());
         userRepo.save(customer);
+        userSecurityStateCache.evict(customer.getUsername());
 
         // Logout user (Clear Cookies)
         SecurityContextHolder.clearContext();
@@ -446,6 +455,7 @@ public class AuthController {
         // Update Role
         customer.setRole(requestedRole.toUpperCase());
         userRepo.save(customer);
+        userSecurityStateCache.evict(customer.getUsername());
 
         // RE-ISSUE TOKEN
         // The old token had "ROLE_PENDING". We need to give them a new token with "ROLE_STUDENT"
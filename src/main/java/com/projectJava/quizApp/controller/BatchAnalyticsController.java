@@ -1,11 +1,17 @@
 package com.projectJava.quizApp.controller;
 
 import com.projectJava.quizApp.DTO.BatchQuizResultDto;
+import com.projectJava.quizApp.DTO.ItemAnalysisDto;
 import com.projectJava.quizApp.service.BatchAnalyticsService;
+import com.projectJava.quizApp.service.ItemAnalysisService;
+import com.projectJava.quizApp.service.ResultExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 
@@ -15,6 +21,10 @@ public class BatchAnalyticsController {
 
     @Autowired
     private BatchAnalyticsService batchAnalyticsService;
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+    @Autowired
+    private ResultExportService resultExportService;
 
     // Matches your Angular call: getBatchResults(batchId, quizId)
     @GetMapping("/batch/{batchId}/quiz/{quizId}")
@@ -22,10 +32,56 @@ public class BatchAnalyticsController {
     public ResponseEntity<BatchQuizResultDto> getBatchQuizAnalytics(
             @PathVariable Long batchId,
             @PathVariable Long quizId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "submittedAt") String sort,
+            @RequestParam(defaultValue = "desc") String direction,
             Principal principal) {
 
         return ResponseEntity.ok(
-                batchAnalyticsService.getBatchQuizResults(batchId, quizId, principal.getName())
+                batchAnalyticsService.getBatchQuizResults(batchId, quizId, principal.getName(), page, size, sort, direction)
         );
     }
-}
\ No newline at end of file
+
+    // Difficulty, discrimination and option picks per question
+    @GetMapping("/quiz/{quizId}/items")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ItemAnalysisDto> getItemAnalysis(@PathVariable Long quizId, Principal principal) {
+        return ResponseEntity.ok(itemAnalysisService.getItemAnalysis(quizId, principal.getName()));
+    }
+
+    // --- Grade exports (streamed; ?format=csv|ndjson&gzip=true) ---
+
+    @GetMapping("/quiz/{quizId}/export")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportQuiz(@PathVariable Long quizId,
+                                                            @RequestParam(defaultValue = "csv") String format,
+                                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                                            Principal principal) {
+        return download(resultExportService.exportQuiz(quizId, principal.getName(), format, gzip));
+    }
+
+    @GetMapping("/batch/{batchId}/export")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportBatch(@PathVariable Long batchId,
+                                                             @RequestParam(defaultValue = "csv") String format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip,
+                                                             Principal principal) {
+        return download(resultExportService.exportBatch(batchId, principal.getName(), format, gzip));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestParam(defaultValue = "csv") String format,
+                                                           @RequestParam(defaultValue = "false") boolean gzip,
+                                                           Principal principal) {
+        return download(resultExportService.exportInstructor(principal.getName(), format, gzip));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(ResultExportService.ExportFile file) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"")
+                .contentType(MediaType.parseMediaType(file.contentType()))
+                .body(file.body());
+    }
+}
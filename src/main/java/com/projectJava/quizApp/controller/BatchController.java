@@ -4,6 +4,7 @@ import com.projectJava.quizApp.DTO.BatchDetailsDto;
 import com.projectJava.quizApp.DTO.BatchResponseDTO;
 import com.projectJava.quizApp.DTO.StudentBatchDto;
 import com.projectJava.quizApp.DTO.StudentDto;
+import com.projectJava.quizApp.model.AuthUser;
 import com.projectJava.quizApp.model.Batch;
 import com.projectJava.quizApp.repo.UserRepo;
 import com.projectJava.quizApp.service.BatchService;
@@ -105,6 +106,8 @@ public class BatchController {
         return ResponseEntity.ok(batchService.getBatchDetails(batchId, userId));
     }
     private Long getUserId(Principal principal) {
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
         return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 
@@ -2,9 +2,15 @@ package com.projectJava.quizApp.controller;
 
 import com.projectJava.quizApp.DTO.ExploreDtos.*;
 import com.projectJava.quizApp.DTO.LeaderboardDto;
+import com.projectJava.quizApp.DTO.LeaderboardPositionDto;
+import com.projectJava.quizApp.model.AuthUser;
+import com.projectJava.quizApp.repo.UserRepo;
 import com.projectJava.quizApp.service.ExploreService;
 import com.projectJava.quizApp.service.LeaderboardService;
 import com.projectJava.quizApp.service.QuizGeneratorService;
+import com.projectJava.quizApp.service.QuizPopularityService;
+import com.projectJava.quizApp.service.QuizSearchService;
+import com.projectJava.quizApp.service.WindowedLeaderboardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +20,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +34,14 @@ public class ExploreController {
     private ExploreService exploreService;
     @Autowired
     private LeaderboardService leaderboardService;
+    @Autowired
+    private WindowedLeaderboardService windowedLeaderboardService;
+    @Autowired
+    private QuizPopularityService quizPopularityService;
+    @Autowired
+    private QuizSearchService quizSearchService;
+    @Autowired
+    private UserRepo userRepo;
 
     @GetMapping("/categories")
     public ResponseEntity<List<ExploreCategoryDto>> getCategories() {
@@ -37,6 +52,14 @@ public class ExploreController {
     public ResponseEntity<Page<TrendingQuizDto>> getTrending(@RequestParam(defaultValue = "0") int page,@RequestParam(defaultValue = "10") int size) {
         return ResponseEntity.ok(exploreService.getTrendingQuizzes(page,size));
     }
+    // e.g. ?q=java stream; each word matches as a prefix. Next page: ?q=...&cursor=<nextCursor>
+    @GetMapping("/search")
+    public ResponseEntity<QuizSearchPageDto> search(@RequestParam("q") String query,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(quizSearchService.search(query, cursor, size));
+    }
+
     @PostMapping("/generate")
     public ResponseEntity<?> generateQuiz(@RequestBody Map<String, String> request) {
         String category = request.get("category"); // e.g., "History"
@@ -46,8 +69,41 @@ public class ExploreController {
 
         return ResponseEntity.ok(Map.of("quizId", quizId));
     }
+    // Body: {"stars": 1..5}; only for quizzes the caller has completed
+    @PostMapping("/quizzes/{quizId}/rating")
+    public ResponseEntity<?> rateQuiz(@PathVariable Long quizId, @RequestBody Map<String, Integer> request, Principal principal) {
+        Integer stars = request.get("stars");
+        if (stars == null) throw new RuntimeException("stars is required");
+        quizPopularityService.rate(quizId, getUserId(principal), stars);
+        return ResponseEntity.ok(Map.of("message", "Rating saved"));
+    }
+
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<LeaderboardDto>> getLeaderboard(){
-        return ResponseEntity.ok(leaderboardService.getLeaderboardData());
+    public ResponseEntity<List<LeaderboardDto>> getLeaderboard(@RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(leaderboardService.getLeaderboardData(page, size));
+    }
+
+    // e.g. ?period=week&country=IN&subject=Java
+    @GetMapping("/leaderboard/window")
+    public ResponseEntity<List<LeaderboardDto>> getWindowedLeaderboard(@RequestParam(defaultValue = "week") String period,
+                                                                       @RequestParam(required = false) String country,
+                                                                       @RequestParam(required = false) String subject,
+                                                                       @RequestParam(defaultValue = "0") int page,
+                                                                       @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(windowedLeaderboardService.getLeaderboard(period, country, subject, page, size));
+    }
+
+    // The caller's rank with the players just above and below
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<LeaderboardPositionDto> getMyRank(Principal principal,
+                                                            @RequestParam(defaultValue = "5") int neighbors) {
+        return ResponseEntity.ok(leaderboardService.getPosition(getUserId(principal), neighbors));
+    }
+
+    private Long getUserId(Principal principal) {
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
+        return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.projectJava.quizApp.DTO.BindByCodeRequest;
 import com.projectJava.quizApp.DTO.CreateInstructorProfileRequest;
 import com.projectJava.quizApp.DTO.InstructorDTO;
 import com.projectJava.quizApp.DTO.InstructorStudentDTO;
+import com.projectJava.quizApp.model.AuthUser;
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.model.InstructorProfile;
 import com.projectJava.quizApp.model.InstructorStudentAssignment;
@@ -130,6 +131,8 @@ public class InstructorContoller {
                 .orElse(ResponseEntity.notFound().build());
     }
     private Long getUserIdFromPrincipal(Principal principal){
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
         return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 }
@@ -1,12 +1,15 @@
 package com.projectJava.quizApp.controller;
 
+import com.projectJava.quizApp.DTO.ChartDataDto;
 import com.projectJava.quizApp.DTO.DashboardResponseDto;
+import com.projectJava.quizApp.service.DashboardCache;
 import com.projectJava.quizApp.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.security.Principal;
@@ -17,10 +20,22 @@ public class InstructorDashboardController {
 
     @Autowired
     private DashboardService dashboardService;
+    @Autowired
+    private DashboardCache dashboardCache;
 
     @GetMapping
     @PreAuthorize("hasRole('INSTRUCTOR')")
     public ResponseEntity<DashboardResponseDto> getDashboardStats(Principal principal) {
-        return ResponseEntity.ok(dashboardService.getDashboardData(principal.getName()));
+        return ResponseEntity.ok(dashboardCache.getInstructorDashboard(principal.getName()));
+    }
+
+    // e.g. ?days=90&granularity=weekly&batchId=12
+    @GetMapping("/engagement")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ChartDataDto> getEngagement(Principal principal,
+                                                      @RequestParam(defaultValue = "7") int days,
+                                                      @RequestParam(defaultValue = "daily") String granularity,
+                                                      @RequestParam(required = false) Long batchId) {
+        return ResponseEntity.ok(dashboardService.getEngagement(principal.getName(), days, granularity, batchId));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package com.projectJava.quizApp.controller;
 
-import com.projectJava.quizApp.model.Customer;
+import com.projectJava.quizApp.model.AuthUser;
 import com.projectJava.quizApp.model.Question;
 import com.projectJava.quizApp.repo.UserRepo;
 import com.projectJava.quizApp.service.QuestionService;
@@ -85,9 +85,12 @@ public class QuestionController {
     @DeleteMapping("/delete/{id}")
     @PreAuthorize("hasRole('INSTRUCTOR')")
     public ResponseEntity<?> deleteQuestion(@PathVariable Long id, Principal principal) {
-        Customer instructor = userRepo.findByUsername(principal.getName()).orElseThrow();
+        Long instructorId = AuthUser.idOf(principal);
+        if (instructorId == null) {
+            instructorId = userRepo.findByUsername(principal.getName()).orElseThrow().getId();
+        }
 
-        quizService.deleteQuestion(id, instructor.getId());
+        quizService.deleteQuestion(id, instructorId);
         return ResponseEntity.ok(Map.of("message","Question deleted successfully"));
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import com.projectJava.quizApp.repo.UserRepo;
 import com.projectJava.quizApp.service.ExploreService;
 import com.projectJava.quizApp.service.QuizResultService;
 import com.projectJava.quizApp.service.QuizService;
+import com.projectJava.quizApp.service.SubmissionDedupCache;
+import com.projectJava.quizApp.service.SubmissionQueueService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +36,12 @@ public class QuizController {
     @Autowired
     private ExploreService exploreService;
 
+    @Autowired
+    private SubmissionQueueService submissionQueueService;
+
+    @Autowired
+    private SubmissionDedupCache submissionDedupCache;
+
     // 1. Create Quiz (Instructor Only)
     @PostMapping
     @PreAuthorize("hasRole('INSTRUCTOR')")
@@ -46,8 +54,11 @@ public class QuizController {
     @GetMapping("/batch/{batchId}")
     @PreAuthorize("hasAnyRole('STUDENT','INSTRUCTOR')")
     public ResponseEntity<List<QuizDto>> getQuizzesByBatch(@PathVariable Long batchId, Principal principal) {
-        Long userId = getUserId(principal);
-        return ResponseEntity.ok(quizService.getQuizzesByBatch(batchId, userId));
+        String role = AuthUser.roleOf(principal);
+        if (role == null) {
+            role = customerRepo.findByUsername(principal.getName()).orElseThrow().getRole();
+        }
+        return ResponseEntity.ok(quizService.getQuizzesByBatch(batchId, role));
     }
 
     // 3. NEW: Start Quiz Info (Metadata for Instructions Page)
@@ -67,8 +78,11 @@ public class QuizController {
     // 4. Get Actual Questions (Exam Mode)
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('STUDENT','USER')")
-    public ResponseEntity<List<QuestionWrapper>> getQuizQuestion(@PathVariable Long id, Principal principal){
-        return quizService.getQuizQuestion(id);
+    public ResponseEntity<byte[]> getQuizQuestion(@PathVariable Long id,
+                                                  @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                                  Principal principal){
+        // Body is the pre-serialized List<QuestionWrapper>; 304 when the client already has this version
+        return quizService.getQuizQuestion(id, ifNoneMatch);
     }
 
     // 5. Submit
@@ -77,9 +91,27 @@ public class QuizController {
     @PreAuthorize("hasAnyRole('STUDENT','USER')")
     public ResponseEntity<QuizResultDto> submitQuiz(@PathVariable Long id,
                                                     @RequestBody List<Response> responses,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                     Principal principal) {
-        // This now returns the object containing the new Result ID
-        return ResponseEntity.ok(quizService.submitQuiz(id, responses, principal.getName()));
+        // Retried request: answer with the stored outcome, no database work
+        String submissionKey = SubmissionDedupCache.keyFor(principal.getName(), id, idempotencyKey);
+        SubmissionDedupCache.Outcome seen = submissionDedupCache.get(submissionKey);
+        if (seen != null) {
+            return ResponseEntity.status(seen.status()).body(seen.result());
+        }
+
+        ResponseEntity<QuizResultDto> response;
+        // Async mode: queued for grading; poll /result/{id} until it stops reporting PENDING
+        if (submissionQueueService.isEnabled()) {
+            response = ResponseEntity.accepted().body(submissionQueueService.enqueue(id, responses, principal.getName(), submissionKey));
+        } else {
+            // This now returns the object containing the new Result ID
+            response = ResponseEntity.ok(quizService.submitQuiz(id, responses, principal.getName(), submissionKey));
+        }
+
+        // Queued (PENDING) answers are not kept; a retry after grading then reads the final outcome
+        submissionDedupCache.put(submissionKey, response.getStatusCode().value(), response.getBody());
+        return response;
     }
 
     // 6. Update Quiz
@@ -108,6 +140,10 @@ public class QuizController {
 
     // Helper
     private Long getUserId(Principal principal) {
+        // Taken from the JWT; only tokens issued before the uid claim need the lookup
+        Long id = AuthUser.idOf(principal);
+        if (id != null) return id;
+
         String name = principal.getName();
         return customerRepo.findByUsername(name)
                 .orElseThrow(() -> new RuntimeException("User not found"))
@@ -149,31 +185,25 @@ public class QuizController {
     @PreAuthorize("hasRole('INSTRUCTOR')")
     public ResponseEntity<?> deleteQuiz(@PathVariable Long id, Principal principal) {
         // We need the user ID to verify ownership
-        Customer instructor = customerRepo.findByUsername(principal.getName()).orElseThrow();
-
-        quizService.deleteQuiz(id, instructor.getId());
+        quizService.deleteQuiz(id, getUserId(principal));
         return ResponseEntity.ok(Map.of("message","Quiz deleted successfully"));
     }
     @GetMapping("/{quizId}/attempt-status")
     @PreAuthorize("hasAnyRole('STUDENT','USER')")
     public ResponseEntity<Map<String, Object>> getAttemptStatus(@PathVariable Long quizId, Principal principal) {
-        Map<String, Object> status = quizService.getAttemptStatus(quizId, principal.getName());
+        Map<String, Object> status = quizService.getAttemptStatus(quizId, getUserId(principal));
 
         // If status is null, it means no active attempt exists (User hasn't started yet)
         return ResponseEntity.ok(status);
     }
 
+    // Deprecated: the deadline is fixed on the server when the attempt starts, so the client's
+    // remainingSeconds heartbeat is ignored. Answered only so older clients do not see errors.
+    @Deprecated
     @PostMapping("/{quizId}/pause")
     @PreAuthorize("hasAnyRole('STUDENT','USER')")
-    public ResponseEntity<?> pauseTimer(
-            @PathVariable Long quizId,
-            @RequestBody Map<String, Integer> payload,
-            Principal principal) {
-
-        Integer secondsLeft = payload.get("remainingSeconds");
-        quizService.updateTimer(quizId, principal.getName(), secondsLeft);
-
-        return ResponseEntity.ok(Map.of("message", "Progress Saved"));
+    public ResponseEntity<Void> pauseTimer(@PathVariable Long quizId) {
+        return ResponseEntity.noContent().build();
     }
     @GetMapping("/getFailedQuiz")
     @PreAuthorize("hasRole('USER')")
@@ -184,9 +214,10 @@ public class QuizController {
 
     @GetMapping("/category/{subject}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<ExploreDtos.TrendingQuizDto>> getQuizzesBySubject(@PathVariable String subject) {
-        // Reuse your logic to map Quiz -> TrendingQuizDto
-        // Ensure you filter by: q.subject = subject AND q.batch IS NULL
-        return ResponseEntity.ok(exploreService.getQuizzesBySubject(subject));
+    public ResponseEntity<List<ExploreDtos.TrendingQuizDto>> getQuizzesBySubject(@PathVariable String subject,
+                                                                           @RequestParam(defaultValue = "0") int page,
+                                                                           @RequestParam(defaultValue = "50") int size) {
+        // Public quizzes only (q.batch IS NULL), most popular first
+        return ResponseEntity.ok(exploreService.getQuizzesBySubject(subject, page, size));
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.projectJava.quizApp.controller;
 
 import com.projectJava.quizApp.DTO.BindByCodeRequest;
 import com.projectJava.quizApp.DTO.InstructorDTO;
+import com.projectJava.quizApp.model.AuthUser;
 import com.projectJava.quizApp.repo.UserRepo;
 import com.projectJava.quizApp.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,8 @@ public class StudentController {
     }
 
     private Long getUserId(Principal principal) {
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
         return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 }
@@ -1,7 +1,9 @@
 package com.projectJava.quizApp.controller;
 
 import com.projectJava.quizApp.DTO.StudentDashboardDto;
-import com.projectJava.quizApp.service.StudentDashboardService;
+import com.projectJava.quizApp.model.AuthUser;
+import com.projectJava.quizApp.repo.UserRepo;
+import com.projectJava.quizApp.service.DashboardCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,11 +18,19 @@ import java.security.Principal;
 public class StudentDashboardController {
 
     @Autowired
-    private StudentDashboardService dashboardService;
+    private DashboardCache dashboardCache;
+    @Autowired
+    private UserRepo userRepo;
 
     @GetMapping
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<StudentDashboardDto> getDashboard(Principal principal) {
-        return ResponseEntity.ok(dashboardService.getDashboardData(principal.getName()));
+        return ResponseEntity.ok(dashboardCache.getStudentDashboard(getUserId(principal)));
+    }
+
+    private Long getUserId(Principal principal) {
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
+        return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 }
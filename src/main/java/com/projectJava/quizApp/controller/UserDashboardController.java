@@ -1,7 +1,9 @@
 package com.projectJava.quizApp.controller;
 
 import com.projectJava.quizApp.DTO.UserDashboardDto;
-import com.projectJava.quizApp.service.UserDashboardService;
+import com.projectJava.quizApp.model.AuthUser;
+import com.projectJava.quizApp.repo.UserRepo;
+import com.projectJava.quizApp.service.DashboardCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,13 +18,21 @@ import java.security.Principal;
 public class UserDashboardController {
 
     @Autowired
-    private UserDashboardService dashboardService;
+    private DashboardCache dashboardCache;
+    @Autowired
+    private UserRepo userRepo;
 
     // Use 'hasRole('USER')' or whatever role your individual users have
     // If they are just generic users, you might use 'isAuthenticated()'
     @GetMapping
     @PreAuthorize("hasAnyRole('USER','STUDENT')")
     public ResponseEntity<UserDashboardDto> getDashboard(Principal principal) {
-        return ResponseEntity.ok(dashboardService.getUserDashboardData(principal.getName()));
+        return ResponseEntity.ok(dashboardCache.getUserDashboard(getUserId(principal)));
+    }
+
+    private Long getUserId(Principal principal) {
+        Long id = AuthUser.idOf(principal); // from the JWT; older tokens fall back to the lookup
+        if (id != null) return id;
+        return userRepo.findByUsername(principal.getName()).orElseThrow().getId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.projectJava.quizApp.event;
+
+// A student joined or left one of this instructor's batches.
+// batchId is null for legacy assignments without a batch; studentId is null when the whole batch was removed.
+public record EnrollmentChangedEvent(Long instructorProfileId, Long batchId, Long studentId) {
+}
@@ -0,0 +1,14 @@
+package com.projectJava.quizApp.event;
+
+import java.time.LocalDateTime;
+
+// An attempt got its final score: graded submission or auto-submit at the deadline.
+// Carries the values themselves, so listeners never read a row that is not flushed yet.
+public record QuizAttemptFinalizedEvent(Long resultId,
+                                        Long quizId,
+                                        Long studentId,
+                                        int scoreObtained,
+                                        Integer totalMarks,
+                                        LocalDateTime startTime,
+                                        LocalDateTime submitDate) {
+}
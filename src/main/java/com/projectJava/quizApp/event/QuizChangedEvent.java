@@ -0,0 +1,5 @@
+package com.projectJava.quizApp.event;
+
+// A quiz was created, edited (e.g. published) or deleted; quizId is null when a whole batch was removed
+public record QuizChangedEvent(Long instructorProfileId, Long quizId) {
+}
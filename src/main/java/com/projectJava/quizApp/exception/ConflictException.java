@@ -0,0 +1,8 @@
+package com.projectJava.quizApp.exception;
+
+// The request clashes with state that already exists (e.g. an attempt that was submitted); mapped to 409
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Submissions per (instructor, batch, day); engagement charts read date ranges of these rows
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "activity_daily", indexes = {
+        @Index(name = "idx_activity_daily_range", columnList = "instructor_profile_id, activity_date")
+})
+@IdClass(ActivityDaily.Key.class)
+public class ActivityDaily {
+
+    @Id
+    private Long instructorProfileId;
+    @Id
+    private Long batchId;
+    @Id
+    private LocalDate activityDate;
+
+    private long submissions;
+    private long distinctStudents;
+    private double pctSum; // sum of percentage scores, avg = pctSum / submissions
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long instructorProfileId;
+        private Long batchId;
+        private LocalDate activityDate;
+    }
+}
@@ -0,0 +1,40 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Which students were active in a batch on a day: keeps ActivityDaily.distinctStudents exact
+// and answers distinct counts over longer buckets (weeks, several batches)
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "activity_daily_student", indexes = {
+        @Index(name = "idx_activity_student_range", columnList = "instructor_profile_id, activity_date")
+})
+@IdClass(ActivityDailyStudent.Key.class)
+public class ActivityDailyStudent {
+
+    @Id
+    private Long instructorProfileId;
+    @Id
+    private Long batchId;
+    @Id
+    private LocalDate activityDate;
+    @Id
+    private Long studentId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long instructorProfileId;
+        private Long batchId;
+        private LocalDate activityDate;
+        private Long studentId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.projectJava.quizApp.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, pre-compiled answer key for one quiz.
+ * Built once from the question table and reused for every submission until a question changes.
+ */
+public final class AnswerKey {
+
+    private final Long quizId;
+    private final Map<Long, Item> items; // questionId -> item
+
+    public AnswerKey(Long quizId, List<Question> questions) {
+        this.quizId = quizId;
+        this.items = questions.stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        Question::getId,
+                        q -> new Item(normalize(q.getRightAnswer()), q.getMarks() != null ? q.getMarks() : 1)
+                ));
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    // Null when the question does not belong to this quiz
+    public Item get(Long questionId) {
+        return questionId == null ? null : items.get(questionId);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public static String normalize(String answer) {
+        return answer == null ? null : answer.trim();
+    }
+
+    public record Item(String rightAnswer, int marks) {
+        public boolean isCorrect(String response) {
+            return response != null && rightAnswer != null && normalize(response).equalsIgnoreCase(rightAnswer);
+        }
+    }
+}
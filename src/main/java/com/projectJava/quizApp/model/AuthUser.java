@@ -0,0 +1,80 @@
+package com.projectJava.quizApp.model;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated user as seen by controllers and services. Built from the JWT claims
+ * (sub, uid, role), so reading the caller's id or role needs no user lookup.
+ */
+public class AuthUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String role; // bare role, e.g. "STUDENT"
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public AuthUser(Long id, String username, String password, String role,
+                    Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.authorities = authorities;
+    }
+
+    // Principal for a verified token: authorities follow the ROLE_ convention used by @PreAuthorize
+    public static AuthUser fromToken(Long id, String username, String role) {
+        return new AuthUser(id, username, "", role,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    // The AuthUser behind a controller's Principal, or null (e.g. OAuth2 login callbacks)
+    public static AuthUser of(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof AuthUser user) {
+            return user;
+        }
+        return null;
+    }
+
+    // Null when the token predates the uid claim; callers then fall back to a lookup by username
+    public static Long idOf(Principal principal) {
+        AuthUser user = of(principal);
+        return user == null ? null : user.getId();
+    }
+
+    public static String roleOf(Principal principal) {
+        AuthUser user = of(principal);
+        return user == null ? null : user.getRole();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,37 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// End-of-day copy of the headline numbers, used for the period-over-period change on the stat cards.
+// Written whenever the instructor's stats change, so the latest row on or before a date holds that date's values.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "instructor_daily_snapshot")
+@IdClass(InstructorDailySnapshot.Key.class)
+public class InstructorDailySnapshot {
+
+    @Id
+    private Long instructorProfileId;
+    @Id
+    private LocalDate snapshotDate;
+
+    private long totalStudents;
+    private long activeStudents;
+    private long totalAttempts;
+    private double pctSum;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long instructorProfileId;
+        private LocalDate snapshotDate;
+    }
+}
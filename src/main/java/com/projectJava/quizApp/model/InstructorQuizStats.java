@@ -0,0 +1,22 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-quiz totals for the instructor's performance chart (the title is joined at read time)
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "instructor_quiz_stats", indexes = {
+        @Index(name = "idx_quiz_stats_instructor", columnList = "instructor_profile_id")
+})
+public class InstructorQuizStats {
+
+    @Id
+    private Long quizId;
+
+    private Long instructorProfileId;
+    private long attempts;
+    private double pctSum;
+}
@@ -0,0 +1,36 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Running totals behind the instructor dashboard, one row per instructor.
+// Updated in place by InstructorStatsService; averages are sums / counts at read time.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "instructor_stats")
+public class InstructorStats {
+
+    @Id
+    private Long instructorProfileId;
+
+    private long totalStudents;
+    private long quizCount;
+
+    // Finalized attempts on this instructor's quizzes
+    private long totalAttempts;
+    private double pctSum;           // sum of per-attempt percentages
+    private long timedAttempts;      // attempts with a start time
+    private long durationSecondsSum;
+
+    // Students per average-score band (same bands as the distribution chart)
+    private long bandExcellent;      // 90-100%
+    private long bandGood;           // 75-89%
+    private long bandAverage;        // 60-74%
+    private long bandPoor;           // below 60%
+
+    private LocalDateTime updatedAt;
+}
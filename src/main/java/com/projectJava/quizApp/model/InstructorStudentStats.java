@@ -0,0 +1,36 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Per-student totals within one instructor's quizzes (top students, attention list, bands)
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "instructor_student_stats")
+@IdClass(InstructorStudentStats.Key.class)
+public class InstructorStudentStats {
+
+    @Id
+    private Long instructorProfileId;
+    @Id
+    private Long studentId;
+
+    private String username;
+    private long attempts;
+    private double pctSum;
+    private LocalDateTime lastSubmitAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long instructorProfileId;
+        private Long studentId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// One user's public-quiz points within one day ('D') or week ('W', starting Monday), per country and subject.
+// The key starts with (periodType, periodStart), so a window is a primary-key range scan.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "leaderboard_bucket")
+@IdClass(LeaderboardBucket.Key.class)
+public class LeaderboardBucket {
+
+    @Id
+    @Column(length = 1)
+    private String periodType;
+    @Id
+    private LocalDate periodStart;
+    @Id
+    private String country;
+    @Id
+    private String subject;
+    @Id
+    private Long userId;
+
+    private long score;
+    private long attempts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String periodType;
+        private LocalDate periodStart;
+        private String country;
+        private String subject;
+        private Long userId;
+    }
+}
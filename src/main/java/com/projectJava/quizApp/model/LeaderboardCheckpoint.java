@@ -0,0 +1,23 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Last checkpointed leaderboard standing of a user, so a restart can serve the board before reseeding
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "leaderboard_checkpoint")
+public class LeaderboardCheckpoint {
+
+    @Id
+    private Long userId;
+
+    private String username;
+    private String country;
+    private long score;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A submission accepted in async mode, waiting for a grading worker
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "pending_submission")
+public class PendingSubmission {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_submission_seq")
+    @SequenceGenerator(name = "pending_submission_seq", sequenceName = "pending_submission_seq", allocationSize = 50)
+    private Long id;
+
+    // The QResult row (already closed, gradingPending = true) this submission grades
+    private Long resultId;
+    private Long quizId;
+    private Long studentId;
+
+    // The raw List<Response> as JSON
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime enqueuedAt;
+
+    // Failed grading runs; entries stop being retried after quiz.submission.max-attempts
+    private int attempts;
+    @Column(length = 500)
+    private String lastError;
+
+    // Set when attempts reaches the limit; the row is kept as a dead letter and no longer claimed
+    private LocalDateTime failedAt;
+}
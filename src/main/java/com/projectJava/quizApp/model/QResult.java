@@ -15,8 +15,10 @@ import java.util.List;
 @AllArgsConstructor
 public class QResult {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "qresult_seq")
+    @SequenceGenerator(name = "qresult_seq", sequenceName = "qresult_seq", allocationSize = 50)
     private Long id;
 
     // Which Quiz was taken?
@@ -38,8 +40,21 @@ public class QResult {
     private String instructorFeedback; // e.g., "Great job!"
     private LocalDateTime startTime;
 
-    private Integer remainingSeconds;
+    private Integer remainingSeconds; // legacy client-reported timer; remaining time is now derived from deadline
+    private LocalDateTime deadline;   // min(startTime + timerInMin, quiz endDate), fixed when the attempt starts
     private LocalDateTime submitDate;
+    private Boolean gradingPending;   // submitted through the async queue, not graded yet
+    private Boolean gradingFailed;    // async grading gave up (dead-lettered); still ungraded until requeued
+    // AttemptReadModels bits of the read models that have not applied this finalized attempt yet
+    private Integer pendingReadModels;
+    // Redeliveries that still left bits pending; parked (no longer redelivered) at quiz.read-models.max-redeliveries
+    private Integer readModelRedeliveries;
+    private LocalDateTime readModelRetryAt;
+    // True for batch quizzes: one row per student and quiz, enforced by uq_qresult_single_attempt
+    private Boolean singleAttempt;
+    // Client idempotency key (username:quizId:Idempotency-Key); unique, so one key grades at most once
+    @Column(unique = true, length = 300)
+    private String submissionKey;
     @OneToMany(mappedBy = "result", cascade = CascadeType.ALL)
     private List<SubmittedAnswer> submittedAnswers = new ArrayList<>();
 }
\ No newline at end of file
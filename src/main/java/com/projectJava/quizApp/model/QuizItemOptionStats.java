@@ -0,0 +1,35 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// How often each option of a question was picked; optionIndex 1-4 is option1..option4, 0 any other answer
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "quiz_item_option_stats")
+@IdClass(QuizItemOptionStats.Key.class)
+public class QuizItemOptionStats {
+
+    @Id
+    private Long quizId;
+    @Id
+    private Long questionId;
+    @Id
+    private Integer optionIndex;
+
+    private long picks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long quizId;
+        private Long questionId;
+        private Integer optionIndex;
+    }
+}
@@ -0,0 +1,34 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Per-question answer counts of one quiz; correctPctSum is the summed score of the students who got it right
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "quiz_item_stats")
+@IdClass(QuizItemStats.Key.class)
+public class QuizItemStats {
+
+    @Id
+    private Long quizId;
+    @Id
+    private Long questionId;
+
+    private long answered;
+    private long correct;
+    private double correctPctSum;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long quizId;
+        private Long questionId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Score moments of a quiz's finalized attempts, the base of the item discrimination indexes
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "quiz_item_summary")
+public class QuizItemSummary {
+
+    @Id
+    private Long quizId;
+
+    private long attempts;
+    private double pctSum;
+    private double pctSqSum;
+
+    // Answer key the counts were graded against; a different key means the rows are rebuilt
+    private long questionSetHash;
+    private LocalDateTime updatedAt;
+}
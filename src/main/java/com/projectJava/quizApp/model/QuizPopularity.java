@@ -0,0 +1,26 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Explore-page counters of a quiz, kept out of Quiz so editing a quiz never overwrites them
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "quiz_popularity", indexes = {
+        @Index(name = "idx_quiz_popularity_trending", columnList = "trending_score DESC, quiz_id DESC")
+})
+public class QuizPopularity {
+
+    @Id
+    private Long quizId;
+
+    private long attemptCount;   // finalized attempts, all time
+    private double trendingScore; // recent attempts, each decayed by its age
+    private long ratingSum;
+    private long ratingCount;
+    private LocalDateTime updatedAt;
+}
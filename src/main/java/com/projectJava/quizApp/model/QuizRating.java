@@ -0,0 +1,34 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// One user's 1-5 star rating of a quiz they finished; re-rating replaces it
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "quiz_rating")
+@IdClass(QuizRating.Key.class)
+public class QuizRating {
+
+    @Id
+    private Long quizId;
+    @Id
+    private Long userId;
+
+    private int stars;
+    private LocalDateTime ratedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long quizId;
+        private Long userId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Student dashboard read model: one row per published quiz in each batch the student is actively enrolled in.
+// Maintained by StudentQuizStatusService; "Pending" vs "Overdue" is decided from dueDate at read time.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "student_quiz_status", indexes = {
+        @Index(name = "idx_sqs_student", columnList = "student_id"),
+        @Index(name = "idx_sqs_quiz", columnList = "quiz_id")
+})
+@IdClass(StudentQuizStatus.Key.class)
+public class StudentQuizStatus {
+
+    @Id
+    private Long studentId;
+    @Id
+    private Long quizId;
+
+    private Long batchId;
+    private Long instructorProfileId;
+
+    // Copied from the quiz on publish / edit
+    private String quizTitle;
+    private String subject;
+    private LocalDateTime dueDate;
+    private Integer maxScore;
+
+    // Set when the student's attempt is finalized (latest attempt wins)
+    private boolean completed;
+    private Long resultId;
+    private Integer scoreObtained;
+    private Integer totalMarks;
+    private LocalDateTime submittedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long studentId;
+        private Long quizId;
+    }
+}
@@ -10,8 +10,10 @@ import lombok.NoArgsConstructor;
 @Table(name = "submitted_answers")
 public class SubmittedAnswer {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submitted_answers_seq")
+    @SequenceGenerator(name = "submitted_answers_seq", sequenceName = "submitted_answers_seq", allocationSize = 50)
     private Long id;
 
     // Link to the parent attempt (QResult)
@@ -0,0 +1,35 @@
+package com.projectJava.quizApp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Running totals for the personal (practice) dashboard, one row per user.
+// Updated in place by UserPracticeStatsService whenever an attempt is finalized.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "user_practice_stats")
+public class UserPracticeStats {
+
+    @Id
+    private Long userId;
+
+    private long completedCount;
+    private double pctSum;           // sum of per-attempt percentages
+
+    // Attempts per percentage band
+    private long bandExcellent;      // 90-100%
+    private long bandGood;           // 75-89%
+    private long bandAverage;        // 60-74%
+    private long bandPoor;           // below 60%
+
+    // Consecutive active days ending on lastActiveDay
+    private int currentStreak;
+    private LocalDate lastActiveDay;
+
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.projectJava.quizApp.repo;
 
+import com.projectJava.quizApp.DTO.EnrollmentSummary;
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.model.InstructorStudentAssignment;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -33,6 +34,12 @@ public interface AssignmentRepo extends JpaRepository<InstructorStudentAssignmen
             "WHERE a.batch.instructor.customer.username = :username")
     long countStudentsByInstructor(@Param("username") String username);
 
+    // Student dashboard: active enrollments with their instructor, as flat rows
+    @Query("SELECT b.id AS batchId, ip.id AS instructorId, ip.displayName AS instructorName, c.email AS instructorEmail " +
+            "FROM InstructorStudentAssignment a JOIN a.batch b JOIN b.instructor ip JOIN ip.customer c " +
+            "WHERE a.student.id = :studentId AND a.active = true")
+    List<EnrollmentSummary> findEnrollmentSummaries(@Param("studentId") Long studentId);
+
     // Get all students for this instructor (to calculate averages)
     @Query("SELECT DISTINCT a.student FROM InstructorStudentAssignment a " +
             "WHERE a.batch.instructor.customer.username = :username")
@@ -0,0 +1,16 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.InstructorDailySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface InstructorDailySnapshotRepo extends JpaRepository<InstructorDailySnapshot, InstructorDailySnapshot.Key> {
+
+    // The values as they stood on the given day
+    Optional<InstructorDailySnapshot> findFirstByInstructorProfileIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            Long instructorProfileId, LocalDate date);
+}
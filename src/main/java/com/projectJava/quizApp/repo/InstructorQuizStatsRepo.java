@@ -0,0 +1,21 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.DTO.DashboardAggregates;
+import com.projectJava.quizApp.model.InstructorQuizStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InstructorQuizStatsRepo extends JpaRepository<InstructorQuizStats, Long> {
+
+    // One row per quiz title (titles, not ids, label the bar chart)
+    @Query(value = "SELECT q.title AS title, SUM(s.attempts) AS attempts, SUM(s.pct_sum) AS pctSum " +
+            "FROM instructor_quiz_stats s JOIN quiz q ON q.id = s.quiz_id " +
+            "WHERE s.instructor_profile_id = :profileId AND s.attempts > 0 " +
+            "GROUP BY q.title", nativeQuery = true)
+    List<DashboardAggregates.QuizAggregate> aggregateByTitle(@Param("profileId") Long profileId);
+}
@@ -0,0 +1,17 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.InstructorStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InstructorStatsRepo extends JpaRepository<InstructorStats, Long> {
+
+    @Query(value = "SELECT ip.id FROM instructor_profile ip JOIN customer c ON c.id = ip.user_id " +
+            "WHERE c.username = :username", nativeQuery = true)
+    Optional<Long> findProfileIdByUsername(@Param("username") String username);
+}
@@ -0,0 +1,13 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.InstructorStudentStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InstructorStudentStatsRepo extends JpaRepository<InstructorStudentStats, InstructorStudentStats.Key> {
+
+    List<InstructorStudentStats> findByInstructorProfileId(Long instructorProfileId);
+}
@@ -0,0 +1,34 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.PendingSubmission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PendingSubmissionRepo extends JpaRepository<PendingSubmission, Long> {
+
+    // Oldest first; rows locked by another worker are skipped, not waited on
+    @Query(value = "SELECT * FROM pending_submission WHERE failed_at IS NULL " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PendingSubmission> claimBatch(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM pending_submission WHERE id = :id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<PendingSubmission> claimById(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM pending_submission WHERE failed_at IS NULL ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findReadyIds(@Param("limit") int limit);
+
+    @Query("SELECT MIN(p.enqueuedAt) FROM PendingSubmission p WHERE p.failedAt IS NULL")
+    LocalDateTime findOldestEnqueuedAt();
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+}
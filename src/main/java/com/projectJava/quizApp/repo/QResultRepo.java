@@ -1,10 +1,11 @@
 package com.projectJava.quizApp.repo;
 
-import com.projectJava.quizApp.DTO.LeaderboardDto;
+import com.projectJava.quizApp.DTO.QuizResultAggregates;
 import com.projectJava.quizApp.model.QResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,25 +30,65 @@ public interface QResultRepo extends JpaRepository<QResult, Long> {
                                                 @Param("sevenDaysAgo") LocalDateTime sevenDaysAgo);
     @Query("SELECT q.quiz.id FROM QResult q WHERE q.student.username = :username")
     List<Long> findAttemptedQuizIdsByStudent(@Param("username") String username);
-    // 2. Find all results for a specific quiz (For Instructor "Class Performance" view)
-    List<QResult> findByQuizId(Long quizId);
     List<QResult> findByStudent_UsernameOrderBySubmitDateDesc(String username);
     Page<QResult> findByStudent_UsernameAndSubmitDateIsNotNullOrderBySubmitDateDesc(String username, Pageable pageable);
     @Query("SELECT r FROM QResult r WHERE r.student.id = :studentId AND r.quiz.batch.id = :batchId")
     List<QResult> findByStudentIdAndBatchId(@Param("studentId") Long studentId, @Param("batchId") Long batchId);
     // Count how many results exist for this quiz
     long countByQuizId(Long quizId);
-    @Query("SELECT new com.projectJava.quizApp.DTO.LeaderboardDto(" +
-            "   q.student.username, " + // Name
-            "   SUM(q.scoreObtained), " + // Score
-            "   q.student.country " +     // Country (if you have it)
-            ") " +
-            "FROM QResult q " +
-            "WHERE q.student.role = 'USER' " + // Filter for individual users
-            "AND q.quiz.batch IS NULL " +      // Filter for public quizzes only
-            "GROUP BY q.student.username, q.student.country " +
-            "ORDER BY SUM(q.scoreObtained) DESC")
-    List<LeaderboardDto> findTopRankedScores();
+    // Submitted at all, graded or still in the async queue
+    boolean existsByStudentIdAndQuizIdAndSubmitDateIsNotNull(Long studentId, Long quizId);
+    @Query("SELECT COUNT(r) > 0 FROM QResult r WHERE r.student.id = :studentId AND r.quiz.id = :quizId " +
+            "AND r.submitDate IS NOT NULL AND COALESCE(r.gradingPending, false) = false")
+    boolean existsFinalizedAttempt(@Param("studentId") Long studentId, @Param("quizId") Long quizId);
+
+    Optional<QResult> findBySubmissionKey(String submissionKey);
+
+    // Closes an open attempt; returns 0 when another request already submitted it
+    @Modifying
+    @Query("UPDATE QResult r SET r.submitDate = :submitDate, r.submissionKey = :submissionKey " +
+            "WHERE r.id = :id AND r.submitDate IS NULL")
+    int closeIfOpen(@Param("id") Long id,
+                    @Param("submitDate") LocalDateTime submitDate,
+                    @Param("submissionKey") String submissionKey);
+
+    // Personal dashboard: five latest attempts (open ones sort first) and the number still open
+    List<QResult> findTop5ByStudentIdOrderBySubmitDateDesc(Long studentId);
+    long countByStudentIdAndSubmitDateIsNull(Long studentId);
+
+    // --- Batch quiz results (one page of rows + one summary row) ---
+
+    // Sort by the aliases (studentName, score, percentage, submittedAt, timeTaken); no count query, the summary has it.
+    // The projection sits in a subquery so the appended ORDER BY names only its output columns, never r./s. columns
+    @Query(value = "SELECT * FROM (SELECT r.student_id AS studentId, s.username AS studentName, s.email AS studentEmail, " +
+            "r.score_obtained AS score, r.total_marks AS totalMarks, " +
+            "CASE WHEN r.total_marks > 0 THEN CAST(r.score_obtained AS double precision) / r.total_marks * 100 ELSE 0 END AS percentage, " +
+            "r.submit_date AS submittedAt, " +
+            "CAST(COALESCE(FLOOR(EXTRACT(EPOCH FROM (r.submit_date - r.start_time))), 0) AS bigint) AS timeTaken " +
+            "FROM qresult r JOIN customer s ON s.id = r.student_id " +
+            "WHERE r.quiz_id = :quizId AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false) result_rows",
+            nativeQuery = true)
+    List<QuizResultAggregates.ResultRow> findResultRowsByQuiz(@Param("quizId") Long quizId, Pageable pageable);
+
+    @Query(value = "WITH p AS (" +
+            "SELECT CASE WHEN r.total_marks > 0 THEN CAST(r.score_obtained AS double precision) / r.total_marks * 100 ELSE 0 END AS pct, " +
+            "r.score_obtained AS score FROM qresult r " +
+            "WHERE r.quiz_id = :quizId AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false) " +
+            "SELECT COUNT(*) AS completed, AVG(pct) AS average, " +
+            "percentile_cont(0.5) WITHIN GROUP (ORDER BY pct) AS median, " +
+            "percentile_cont(0.25) WITHIN GROUP (ORDER BY pct) AS p25, " +
+            "percentile_cont(0.75) WITHIN GROUP (ORDER BY pct) AS p75, " +
+            "percentile_cont(0.9) WITHIN GROUP (ORDER BY pct) AS p90, " +
+            "CAST(AVG(CASE WHEN score >= :passingMarks THEN 100 ELSE 0 END) AS double precision) AS passRate, " +
+            "(SELECT string_agg(CAST(COALESCE(h.n, 0) AS text), ',' ORDER BY g.b) " +
+            "FROM generate_series(1, 10) AS g(b) " +
+            "LEFT JOIN (SELECT LEAST(width_bucket(pct, 0, 100, 10), 10) AS b, COUNT(*) AS n FROM p GROUP BY 1) h ON h.b = g.b) AS histogram " +
+            "FROM p", nativeQuery = true)
+    QuizResultAggregates.Summary summarizeResultsByQuiz(@Param("quizId") Long quizId,
+                                                        @Param("passingMarks") int passingMarks);
+
+    // Latest feedback for the student dashboard
+    List<QResult> findTop5ByStudentIdAndInstructorFeedbackIsNotNullOrderBySubmitDateDesc(Long studentId);
 
     // Check if any student submitted an answer for a specific question
     @Query("SELECT COUNT(sa) > 0 FROM SubmittedAnswer sa WHERE sa.question.id = :questionId")
@@ -0,0 +1,13 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.QuizItemOptionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizItemOptionStatsRepo extends JpaRepository<QuizItemOptionStats, QuizItemOptionStats.Key> {
+
+    List<QuizItemOptionStats> findByQuizId(Long quizId);
+}
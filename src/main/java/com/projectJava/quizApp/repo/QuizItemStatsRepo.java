@@ -0,0 +1,13 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.QuizItemStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizItemStatsRepo extends JpaRepository<QuizItemStats, QuizItemStats.Key> {
+
+    List<QuizItemStats> findByQuizId(Long quizId);
+}
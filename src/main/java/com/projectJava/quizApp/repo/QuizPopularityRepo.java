@@ -0,0 +1,35 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.DTO.ExploreDtos;
+import com.projectJava.quizApp.model.QuizPopularity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizPopularityRepo extends JpaRepository<QuizPopularity, Long> {
+
+    String ROW_COLUMNS = "q.id AS id, q.title AS title, q.subject AS subject, q.difficulty AS difficulty, " +
+            "q.total_marks AS totalMarks, q.passing_marks AS passingMarks, ";
+
+    // Walks idx_quiz_popularity_trending; every quiz gets its row from QuizPopularityService
+    @Query(value = "SELECT " + ROW_COLUMNS + "p.attempt_count AS attempts, p.rating_sum AS ratingSum, p.rating_count AS ratingCount " +
+            "FROM quiz_popularity p JOIN quiz q ON q.id = p.quiz_id WHERE q.status = 'PUBLISHED' " +
+            "ORDER BY p.trending_score DESC, p.quiz_id DESC",
+            countQuery = "SELECT COUNT(*) FROM quiz_popularity p JOIN quiz q ON q.id = p.quiz_id WHERE q.status = 'PUBLISHED'",
+            nativeQuery = true)
+    Page<ExploreDtos.TrendingQuizRow> findTrending(Pageable pageable);
+
+    @Query(value = "SELECT " + ROW_COLUMNS + "COALESCE(p.attempt_count, 0) AS attempts, " +
+            "COALESCE(p.rating_sum, 0) AS ratingSum, COALESCE(p.rating_count, 0) AS ratingCount " +
+            "FROM quiz q LEFT JOIN quiz_popularity p ON p.quiz_id = q.id " +
+            "WHERE LOWER(q.subject) = LOWER(:subject) AND q.batch_id IS NULL " +
+            "ORDER BY COALESCE(p.trending_score, 0) DESC, q.id DESC",
+            nativeQuery = true)
+    List<ExploreDtos.TrendingQuizRow> findPublicBySubject(@Param("subject") String subject, Pageable pageable);
+}
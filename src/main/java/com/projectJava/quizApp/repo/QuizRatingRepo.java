@@ -0,0 +1,9 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.QuizRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuizRatingRepo extends JpaRepository<QuizRating, QuizRating.Key> {
+}
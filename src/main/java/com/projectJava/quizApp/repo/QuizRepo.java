@@ -1,5 +1,6 @@
 package com.projectJava.quizApp.repo;
 
+import com.projectJava.quizApp.DTO.ExploreDtos;
 import com.projectJava.quizApp.enums.QuizStatus;
 import com.projectJava.quizApp.model.QResult;
 import com.projectJava.quizApp.model.Quiz;
@@ -19,6 +20,8 @@ public interface QuizRepo extends JpaRepository<Quiz, Long> {
     long countByInstructor(@Param("username") String username);
     // Find all quizzes assigned to a specific batch
     List<Quiz> findByBatchId(Long batchId);
+    @Query("SELECT q.id FROM Quiz q WHERE q.batch.id = :batchId")
+    List<Long> findIdsByBatchId(@Param("batchId") Long batchId);
     // 2. NEW: Count quizzes (Fixes your error)
     long countByBatchId(Long batchId);
 
@@ -33,9 +36,11 @@ public interface QuizRepo extends JpaRepository<Quiz, Long> {
 List<Quiz> findByTitleStartingWithAndBatchIsNull(String titlePrefix);    // Fetch all Published quizzes (ignoring drafts)
     Page<Quiz> findByStatus(QuizStatus status, Pageable pageable);
     Optional<Quiz> findTopByTitleAndBatchIsNull(String title);
-    // Fetch unique subjects (categories)
-    @Query("SELECT DISTINCT q.subject FROM Quiz q WHERE q.status = 'PUBLISHED'")
-    List<String> findDistinctSubjects();
+    // Explore catalogue: every public subject with its difficulty breakdown, in one pass
+    @Query(value = "SELECT q.subject AS subject, q.difficulty AS difficulty, COUNT(*) AS quizCount FROM quiz q " +
+            "WHERE q.status = 'PUBLISHED' AND q.batch_id IS NULL AND q.subject IS NOT NULL AND TRIM(q.subject) <> '' " +
+            "GROUP BY q.subject, q.difficulty", nativeQuery = true)
+    List<ExploreDtos.SubjectDifficultyCount> countPublicBySubjectAndDifficulty();
     // NEW: Count quizzes that don't belong to any class (Public Quizzes)
     long countByBatchIsNull();
 
@@ -50,9 +55,6 @@ List<Quiz> findByTitleStartingWithAndBatchIsNull(String titlePrefix);    // Fetc
     // 3. NEW: Delete quizzes (Required for the delete logic)
     void deleteByBatchId(Long batchId);
 
-    // FIX 1: Add this for counting quizzes in getCategories()
-    long countBySubjectIgnoringCase(String subject);
-
     // FIX 2: Add this for fetching the category library page
     List<Quiz> findBySubjectIgnoreCaseAndBatchIsNull(String subject);
 
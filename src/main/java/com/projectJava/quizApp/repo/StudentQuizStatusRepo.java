@@ -0,0 +1,13 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.StudentQuizStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudentQuizStatusRepo extends JpaRepository<StudentQuizStatus, StudentQuizStatus.Key> {
+
+    List<StudentQuizStatus> findByStudentId(Long studentId);
+}
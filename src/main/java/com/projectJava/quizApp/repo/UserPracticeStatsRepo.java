@@ -0,0 +1,9 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.model.UserPracticeStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserPracticeStatsRepo extends JpaRepository<UserPracticeStats, Long> {
+}
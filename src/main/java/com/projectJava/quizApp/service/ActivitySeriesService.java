@@ -0,0 +1,166 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.ChartDataDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Daily activity buckets (activity_daily) behind the engagement charts.
+ * Filled one upsert per submission by InstructorStatsService, and backfilled from qresult
+ * together with the instructor snapshot, so a chart of any range is an index range scan.
+ */
+@Service
+public class ActivitySeriesService {
+
+    public static final int MAX_DAYS = 365;
+
+    private static final String INSERT_DAY_STUDENT =
+            "INSERT INTO activity_daily_student (instructor_profile_id, batch_id, activity_date, student_id) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // distinct_students grows only when the student row above was new
+    private static final String UPSERT_DAY =
+            "INSERT INTO activity_daily (instructor_profile_id, batch_id, activity_date, submissions, distinct_students, pct_sum) " +
+            "VALUES (?, ?, ?, 1, ?, ?) " +
+            "ON CONFLICT (instructor_profile_id, batch_id, activity_date) DO UPDATE SET " +
+            "submissions = activity_daily.submissions + 1, " +
+            "distinct_students = activity_daily.distinct_students + EXCLUDED.distinct_students, " +
+            "pct_sum = activity_daily.pct_sum + EXCLUDED.pct_sum";
+
+    private static final String FINALIZED_FOR_INSTRUCTOR =
+            "FROM qresult r JOIN quiz q ON q.id = r.quiz_id JOIN batches b ON b.id = q.batch_id " +
+            "WHERE b.instructor_profile_id = ? AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "AND " + AttemptReadModels.applied(AttemptReadModels.INSTRUCTOR_STATS) + " ";
+
+    private static final String BACKFILL_DAY_STUDENTS =
+            "INSERT INTO activity_daily_student (instructor_profile_id, batch_id, activity_date, student_id) " +
+            "SELECT DISTINCT b.instructor_profile_id, b.id, CAST(r.submit_date AS date), r.student_id " +
+            FINALIZED_FOR_INSTRUCTOR;
+
+    private static final String BACKFILL_DAYS =
+            "INSERT INTO activity_daily (instructor_profile_id, batch_id, activity_date, submissions, distinct_students, pct_sum) " +
+            "SELECT b.instructor_profile_id, b.id, CAST(r.submit_date AS date), COUNT(*), COUNT(DISTINCT r.student_id), " +
+            "SUM(" + InstructorStatsService.PCT + ") " +
+            FINALIZED_FOR_INSTRUCTOR +
+            "GROUP BY b.instructor_profile_id, b.id, CAST(r.submit_date AS date)";
+
+    private static final DateTimeFormatter SHORT_DATE = DateTimeFormatter.ofPattern("MMM d", Locale.US);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // --- Write side (called inside the stats transaction, which holds the instructor's lock) ---
+
+    void record(Long profileId, Long batchId, Long studentId, LocalDate day, double pct) {
+        Date date = Date.valueOf(day);
+        int newStudent = jdbcTemplate.update(INSERT_DAY_STUDENT, profileId, batchId, date, studentId);
+        jdbcTemplate.update(UPSERT_DAY, profileId, batchId, date, newStudent, pct);
+    }
+
+    void backfill(Long profileId) {
+        jdbcTemplate.update("DELETE FROM activity_daily_student WHERE instructor_profile_id = ?", profileId);
+        jdbcTemplate.update("DELETE FROM activity_daily WHERE instructor_profile_id = ?", profileId);
+        jdbcTemplate.update(BACKFILL_DAY_STUDENTS, profileId);
+        jdbcTemplate.update(BACKFILL_DAYS, profileId);
+    }
+
+    // --- Read side ---
+
+    // Completions, active students and average score for the last `days` days, per day or per week (Mon-Sun).
+    // batchId narrows the series to one batch; null covers all of the instructor's batches.
+    public ChartDataDto series(Long profileId, Long batchId, int days, String granularity) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new RuntimeException("days must be between 1 and " + MAX_DAYS);
+        }
+        boolean weekly;
+        if ("daily".equalsIgnoreCase(granularity)) weekly = false;
+        else if ("weekly".equalsIgnoreCase(granularity)) weekly = true;
+        else throw new RuntimeException("granularity must be 'daily' or 'weekly'");
+
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(days - 1L);
+
+        // 1. Bucket keys, oldest first (empty buckets still show up); weeks are always whole
+        if (weekly) from = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<LocalDate> buckets = new ArrayList<>();
+        LocalDate bucket = from;
+        while (!bucket.isAfter(today)) {
+            buckets.add(bucket);
+            bucket = bucket.plusDays(weekly ? 7 : 1);
+        }
+
+        // 2. Totals per bucket (none for a user without a profile)
+        Map<LocalDate, Long> submissions = new HashMap<>();
+        Map<LocalDate, Double> pctSums = new HashMap<>();
+        Map<LocalDate, Long> students = new HashMap<>();
+        if (profileId != null) {
+            loadBuckets(profileId, batchId, from, weekly, submissions, pctSums, students);
+        }
+
+        // 3. Align with the buckets
+        List<String> labels = new ArrayList<>();
+        List<Number> completions = new ArrayList<>();
+        List<Number> active = new ArrayList<>();
+        List<Number> avgScores = new ArrayList<>();
+        for (LocalDate key : buckets) {
+            labels.add(label(key, weekly, days));
+            long count = submissions.getOrDefault(key, 0L);
+            completions.add(count);
+            active.add(students.getOrDefault(key, 0L));
+            avgScores.add(count == 0 ? 0 : Math.round(pctSums.get(key) / count * 10.0) / 10.0);
+        }
+
+        return ChartDataDto.builder()
+                .labels(labels)
+                .datasets(List.of(
+                        ChartDataDto.DatasetDto.builder().label("Quiz Completions").data(completions).build(),
+                        ChartDataDto.DatasetDto.builder().label("Active Students").data(active).build(),
+                        ChartDataDto.DatasetDto.builder().label("Avg Score").data(avgScores).build()))
+                .build();
+    }
+
+    // Two grouped range scans: totals from the day rows, distinct students from the student rows
+    private void loadBuckets(Long profileId, Long batchId, LocalDate from, boolean weekly,
+                             Map<LocalDate, Long> submissions, Map<LocalDate, Double> pctSums,
+                             Map<LocalDate, Long> students) {
+        String bucketExpr = weekly ? "CAST(date_trunc('week', activity_date) AS date)" : "activity_date";
+        String where = "WHERE instructor_profile_id = ? AND activity_date >= ?" + (batchId != null ? " AND batch_id = ?" : "");
+        Object[] args = batchId != null
+                ? new Object[]{profileId, Date.valueOf(from), batchId}
+                : new Object[]{profileId, Date.valueOf(from)};
+
+        RowCallbackHandler totals = rs -> {
+            LocalDate key = rs.getDate("bucket").toLocalDate();
+            submissions.put(key, rs.getLong("submissions"));
+            pctSums.put(key, rs.getDouble("pct_sum"));
+        };
+        jdbcTemplate.query("SELECT " + bucketExpr + " AS bucket, SUM(submissions) AS submissions, SUM(pct_sum) AS pct_sum " +
+                "FROM activity_daily " + where + " GROUP BY 1", totals, args);
+
+        RowCallbackHandler distinct = rs -> students.put(rs.getDate("bucket").toLocalDate(), rs.getLong("students"));
+        jdbcTemplate.query("SELECT " + bucketExpr + " AS bucket, COUNT(DISTINCT student_id) AS students " +
+                "FROM activity_daily_student " + where + " GROUP BY 1", distinct, args);
+    }
+
+    // "Mon".."Sun" for a single week of days, otherwise the date ("Oct 12"; weeks by their Monday)
+    private String label(LocalDate bucket, boolean weekly, int days) {
+        if (!weekly && days <= 7) {
+            return bucket.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.US);
+        }
+        return bucket.format(SHORT_DATE);
+    }
+}
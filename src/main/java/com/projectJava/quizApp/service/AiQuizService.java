@@ -7,6 +7,7 @@ import com.projectJava.quizApp.DTO.AiGenerateRequest;
 import com.projectJava.quizApp.DTO.AiTopicRequest;
 import com.projectJava.quizApp.DTO.QuestionDto;
 import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.event.QuizChangedEvent;
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.model.Question;
 import com.projectJava.quizApp.model.Quiz;
@@ -17,6 +18,7 @@ import com.projectJava.quizApp.repo.UserRepo;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
@@ -38,6 +40,9 @@ public class AiQuizService {
     @Autowired private QuizRepo quizRepo;
     @Autowired private QResultRepo qResultRepo;
     @Autowired private UserRepo userRepo;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private AnswerKeyService answerKeyService;
+    @Autowired private ExamPaperService examPaperService;
 
     // 1. GENERATE PREVIEW (Do not save to DB)
     public List<QuestionDto> generateQuestionPreview(AiGenerateRequest request,String username) {
@@ -116,7 +121,10 @@ public class AiQuizService {
         }
 
         // 5. Save ONLY new questions
-        return questionRepo.saveAll(newQuestions);
+        List<Question> saved = questionRepo.saveAll(newQuestions);
+        answerKeyService.invalidate(quizId);
+        examPaperService.evict(quizId);
+        return saved;
     }
     private void recalculateQuizMarks(Quiz quiz) {
         List<Question> allQuestions = questionRepo.findByQuizId(quiz.getId());
@@ -284,6 +292,7 @@ public class AiQuizService {
             }).collect(Collectors.toList());
 
             questionRepo.saveAll(questions);
+            eventPublisher.publishEvent(new QuizChangedEvent(null, quiz.getId()));
             return quiz.getId();
 
         } catch (Exception e) {
@@ -0,0 +1,42 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.model.AnswerKey;
+import com.projectJava.quizApp.repo.QuestionRepo;
+import com.projectJava.quizApp.utility.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class AnswerKeyService {
+
+    // Enough for every quiz that is live at the same time; cold quizzes simply reload
+    private static final int MAX_CACHED_QUIZZES = 500;
+
+    @Autowired
+    private QuestionRepo questionRepo;
+
+    private final BoundedCache<Long, AnswerKey> cache = new BoundedCache<>(MAX_CACHED_QUIZZES);
+
+    // One query per quiz, then served from memory for every submission
+    public AnswerKey getAnswerKey(Long quizId) {
+        return cache.get(quizId, id -> new AnswerKey(id, questionRepo.findByQuizId(id)));
+    }
+
+    // Call after any question of the quiz is added, edited or removed
+    public void invalidate(Long quizId) {
+        if (quizId == null) return;
+        cache.invalidate(quizId);
+
+        // Invalidate again after commit, so a submission racing with the transaction cannot re-cache the old key
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(quizId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Finalizes attempts whose deadline has passed, so open QResult rows
+ * (submit_date IS NULL) only ever belong to students who are still in the exam.
+ */
+@Component
+public class AttemptDeadlineSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptDeadlineSweeper.class);
+
+    // Older open rows never got a deadline; derive it the same way startQuizSession does
+    private static final String BACKFILL_DEADLINES =
+            "UPDATE qresult r SET deadline = LEAST(r.start_time + make_interval(mins => q.timer_in_min), q.end_date) " +
+            "FROM quiz q WHERE r.quiz_id = q.id AND r.submit_date IS NULL AND r.deadline IS NULL";
+
+    // One set-based statement per batch; SKIP LOCKED lets several instances sweep side by side
+    private static final String FINALIZE_EXPIRED =
+            "UPDATE qresult SET submit_date = deadline, remaining_seconds = 0, pending_read_models = " + AttemptReadModels.ALL + ", " +
+            "score_obtained = COALESCE(score_obtained, 0), correct_answers = COALESCE(correct_answers, 0) " +
+            "WHERE id IN (SELECT id FROM qresult WHERE submit_date IS NULL AND deadline < ? " +
+            "ORDER BY deadline LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, student_id, quiz_id, score_obtained, total_marks, start_time, submit_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptSessionStore attemptSessionStore;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Late submits (slow network on the last second) are still accepted within this window
+    @Value("${quiz.attempt.grace-seconds:30}")
+    private int graceSeconds;
+
+    @Value("${quiz.attempt.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${quiz.attempt.sweep-interval-ms:30000}")
+    public void sweep() {
+        int backfilled = jdbcTemplate.update(BACKFILL_DEADLINES);
+        if (backfilled > 0) {
+            log.info("Backfilled deadlines for {} open attempts", backfilled);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(now.minusSeconds(graceSeconds));
+        int total = 0;
+
+        while (true) {
+            List<QuizAttemptFinalizedEvent> finalized = jdbcTemplate.query(FINALIZE_EXPIRED,
+                    (rs, i) -> new QuizAttemptFinalizedEvent(
+                            rs.getLong("id"),
+                            rs.getLong("quiz_id"),
+                            rs.getLong("student_id"),
+                            rs.getInt("score_obtained"),
+                            rs.getObject("total_marks", Integer.class),
+                            rs.getObject("start_time", LocalDateTime.class),
+                            rs.getObject("submit_date", LocalDateTime.class)),
+                    cutoff, batchSize);
+
+            for (QuizAttemptFinalizedEvent attempt : finalized) {
+                attemptSessionStore.remove(attempt.studentId(), attempt.quizId());
+                // No transaction here, so listeners run right away; a read model that fails is redelivered later
+                try {
+                    eventPublisher.publishEvent(attempt);
+                } catch (RuntimeException e) {
+                    log.warn("Listener failed for auto-submitted attempt {}: {}", attempt.resultId(), e.getMessage());
+                }
+            }
+            total += finalized.size();
+
+            if (finalized.size() < batchSize) break;
+        }
+
+        attemptSessionStore.evictExpired(now);
+        if (total > 0) {
+            log.info("Auto-submitted {} expired attempts", total);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bookkeeping for the read models that fold a finalized attempt in after the submit has committed.
+ * A finalized qresult row starts with one pending bit per model (pending_read_models). A model clears
+ * its bit in the same transaction that applies the attempt, so it is applied at most once, and a
+ * model that (re)builds itself from qresult counts only attempts whose bit is already clear. Build and
+ * apply take the same advisory lock per model key, so they never interleave. Bits still set a while
+ * after the submit (listener failed, instance stopped) are redelivered on a schedule, backing off after
+ * each failed round. A row still failing after quiz.read-models.max-redeliveries rounds is parked: it is
+ * logged, counted by the quiz.read-models.parked gauge, and skipped until read_model_redeliveries is reset.
+ */
+@Component
+public class AttemptReadModels {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptReadModels.class);
+
+    public static final int INSTRUCTOR_STATS = 1;
+    public static final int PRACTICE_STATS = 2;
+    public static final int ITEM_ANALYSIS = 4;
+    public static final int LEADERBOARD_BUCKETS = 8;
+    public static final int POPULARITY = 16;
+    public static final int STUDENT_QUIZ_STATUS = 32;
+    public static final int ALL = INSTRUCTOR_STATS | PRACTICE_STATS | ITEM_ANALYSIS
+            | LEADERBOARD_BUCKETS | POPULARITY | STUDENT_QUIZ_STATUS;
+
+    // Read models apply an attempt before the caches built from them are evicted (default order)
+    public static final int LISTENER_ORDER = 0;
+
+    // Rows due for a round, oldest due first; parked rows never reach the head of the queue
+    private static final String PENDING =
+            "SELECT id, quiz_id, student_id, score_obtained, total_marks, start_time, submit_date, pending_read_models " +
+            "FROM qresult WHERE pending_read_models <> 0 AND submit_date < ? AND COALESCE(grading_pending, false) = false " +
+            "AND COALESCE(read_model_redeliveries, 0) < ? AND (read_model_retry_at IS NULL OR read_model_retry_at <= ?) " +
+            "ORDER BY COALESCE(read_model_retry_at, submit_date) LIMIT ?";
+
+    private static final String ROUNDS_IF_PENDING =
+            "SELECT COALESCE(read_model_redeliveries, 0) FROM qresult WHERE id = ? AND pending_read_models <> 0";
+
+    private static final String RETRY_LATER =
+            "UPDATE qresult SET read_model_redeliveries = ?, read_model_retry_at = ? WHERE id = ?";
+
+    private static final String COUNT_PARKED =
+            "SELECT COUNT(*) FROM qresult WHERE pending_read_models <> 0 AND read_model_redeliveries >= ?";
+
+    // Longest wait between two rounds of one row
+    private static final long MAX_BACKOFF_SECONDS = 6 * 3600;
+
+    // A model that takes part in the bookkeeping; its listener must be transactional (REQUIRES_NEW)
+    public interface Model {
+        int readModelBit();
+
+        void onAttemptFinalized(QuizAttemptFinalizedEvent event);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectProvider<Model> models;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.read-models.redeliver-after-seconds:60}")
+    private int redeliverAfterSeconds;
+
+    @Value("${quiz.read-models.redeliver-batch-size:200}")
+    private int batchSize;
+
+    @Value("${quiz.read-models.max-redeliveries:8}")
+    private int maxRedeliveries;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("quiz.read-models.parked", this, s -> s.countParked())
+                .description("Finalized attempts a read model keeps failing to apply; no longer redelivered")
+                .register(meterRegistry);
+    }
+
+    // SQL condition (on qresult alias r) for attempts the model has already applied, or never had to
+    public static String applied(int model) {
+        return "COALESCE(r.pending_read_models, 0) & " + model + " = 0";
+    }
+
+    // Serializes builds and applies of one model key until the current transaction ends
+    public void lock(int model, long key) {
+        jdbcTemplate.queryForObject("SELECT 1 FROM (SELECT pg_advisory_xact_lock(?, ?)) l", Integer.class,
+                model, (int) (key ^ (key >>> 32)));
+    }
+
+    // Shared form for writers that may run side by side but never next to a build holding lock()
+    public void lockShared(int model, long key) {
+        jdbcTemplate.queryForObject("SELECT 1 FROM (SELECT pg_advisory_xact_lock_shared(?, ?)) l", Integer.class,
+                model, (int) (key ^ (key >>> 32)));
+    }
+
+    // Clears the model's bit; false when it was clear already (applied before, or not this model's attempt)
+    public boolean claim(Long resultId, int model) {
+        return jdbcTemplate.update("UPDATE qresult SET pending_read_models = pending_read_models & ~CAST(? AS integer) " +
+                "WHERE id = ? AND pending_read_models & CAST(? AS integer) <> 0", model, resultId, model) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.read-models.redeliver-interval-ms:60000}")
+    public void redeliver() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(now.minusSeconds(redeliverAfterSeconds));
+        List<Pending> rows = jdbcTemplate.query(PENDING, (rs, i) -> new Pending(
+                new QuizAttemptFinalizedEvent(
+                        rs.getLong("id"),
+                        rs.getLong("quiz_id"),
+                        rs.getLong("student_id"),
+                        rs.getInt("score_obtained"),
+                        rs.getObject("total_marks", Integer.class),
+                        rs.getObject("start_time", LocalDateTime.class),
+                        rs.getObject("submit_date", LocalDateTime.class)),
+                rs.getInt("pending_read_models")), cutoff, maxRedeliveries, Timestamp.valueOf(now), batchSize);
+
+        for (Pending row : rows) {
+            models.orderedStream()
+                    .filter(model -> (row.bits() & model.readModelBit()) != 0)
+                    .forEach(model -> deliver(model, row.event()));
+            retryLaterIfPending(row.event().resultId());
+        }
+        if (!rows.isEmpty()) {
+            log.info("Redelivered {} finalized attempts to their read models", rows.size());
+        }
+    }
+
+    // Each model runs in its own transaction; one that fails keeps its bit and is tried again next round
+    public void deliver(Model model, QuizAttemptFinalizedEvent event) {
+        try {
+            model.onAttemptFinalized(event);
+        } catch (RuntimeException e) {
+            log.warn("Read model {} could not apply attempt {}: {}",
+                    ClassUtils.getUserClass(model).getSimpleName(), event.resultId(), e.getMessage());
+        }
+    }
+
+    // A model still failed: wait twice as long as last time, park the row once it has had its rounds
+    private void retryLaterIfPending(Long resultId) {
+        try {
+            List<Integer> done = jdbcTemplate.queryForList(ROUNDS_IF_PENDING, Integer.class, resultId);
+            if (done.isEmpty()) return; // every model applied it
+            int round = done.get(0) + 1;
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, (long) redeliverAfterSeconds << Math.min(round, 20));
+            jdbcTemplate.update(RETRY_LATER, round, Timestamp.valueOf(LocalDateTime.now().plusSeconds(backoff)), resultId);
+            if (round >= maxRedeliveries) {
+                log.error("Finalized attempt {} parked after {} redeliveries; reset read_model_redeliveries to retry it",
+                        resultId, round);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not schedule the next redelivery of attempt {}: {}", resultId, e.getMessage());
+        }
+    }
+
+    private double countParked() {
+        Long parked = jdbcTemplate.queryForObject(COUNT_PARKED, Long.class, maxRedeliveries);
+        return parked == null ? 0 : parked;
+    }
+
+    private record Pending(QuizAttemptFinalizedEvent event, int bits) {
+    }
+}
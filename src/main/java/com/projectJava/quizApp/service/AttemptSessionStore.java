@@ -0,0 +1,97 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.model.QResult;
+import com.projectJava.quizApp.model.Quiz;
+import com.projectJava.quizApp.repo.QResultRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of running quiz attempts, keyed by (studentId, quizId).
+ * Each attempt has a fixed server-side deadline, so remaining time is computed on read and
+ * nothing has to be written while the student works. After a restart sessions reload from QResult.
+ */
+@Service
+public class AttemptSessionStore {
+
+    @Autowired
+    private QResultRepo qResultRepo;
+
+    private final Map<Key, Session> sessions = new ConcurrentHashMap<>();
+
+    // Earliest of (start + timer) and the quiz end date; null when neither applies
+    public static LocalDateTime deadlineFor(Quiz quiz, LocalDateTime startTime) {
+        LocalDateTime deadline = null;
+        if (quiz.getTimerInMin() != null && startTime != null) {
+            deadline = startTime.plusMinutes(quiz.getTimerInMin());
+        }
+        if (quiz.getEndDate() != null && (deadline == null || quiz.getEndDate().isBefore(deadline))) {
+            deadline = quiz.getEndDate();
+        }
+        return deadline;
+    }
+
+    // Null when the student has no open attempt for this quiz
+    public Session get(Long studentId, Long quizId) {
+        return sessions.computeIfAbsent(new Key(studentId, quizId), this::load);
+    }
+
+    public void register(Long studentId, Long quizId, QResult attempt) {
+        sessions.put(new Key(studentId, quizId), new Session(attempt.getId(), attempt.getDeadline()));
+    }
+
+    // The attempt was submitted or finalized; forget it
+    public void remove(Long studentId, Long quizId) {
+        sessions.remove(new Key(studentId, quizId));
+    }
+
+    // Drop sessions whose deadline has passed (the sweeper finalizes the rows themselves)
+    public void evictExpired(LocalDateTime now) {
+        sessions.values().removeIf(s -> s.deadline != null && s.deadline.isBefore(now));
+    }
+
+    private Session load(Key key) {
+        List<QResult> attempts = qResultRepo.findByStudentIdAndQuizIdAndSubmitDateIsNull(key.studentId(), key.quizId());
+        if (attempts.isEmpty()) return null;
+
+        QResult attempt = attempts.get(0);
+        LocalDateTime deadline = attempt.getDeadline() != null
+                ? attempt.getDeadline()
+                : deadlineFor(attempt.getQuiz(), attempt.getStartTime()); // row from before deadlines existed
+        return new Session(attempt.getId(), deadline);
+    }
+
+    private record Key(Long studentId, Long quizId) {
+    }
+
+    public static class Session {
+        private final Long resultId;
+        private final LocalDateTime deadline;
+
+        Session(Long resultId, LocalDateTime deadline) {
+            this.resultId = resultId;
+            this.deadline = deadline;
+        }
+
+        public Long getResultId() {
+            return resultId;
+        }
+
+        public LocalDateTime getDeadline() {
+            return deadline;
+        }
+
+        // Null when the attempt has no time limit
+        public Integer getRemainingSeconds(LocalDateTime now) {
+            if (deadline == null) return null;
+            long seconds = Duration.between(now, deadline).getSeconds();
+            return (int) Math.max(0, seconds);
+        }
+    }
+}
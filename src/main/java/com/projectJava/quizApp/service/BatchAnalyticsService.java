@@ -1,26 +1,40 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.BatchQuizResultDto;
+import com.projectJava.quizApp.DTO.QuizResultAggregates;
 import com.projectJava.quizApp.DTO.StudentResultItemDto;
 import com.projectJava.quizApp.model.*;
 import com.projectJava.quizApp.repo.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class BatchAnalyticsService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Request sort key -> column alias of QResultRepo.findResultRowsByQuiz
+    public static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "studentName",
+            "score", "score",
+            "percentage", "percentage",
+            "submittedAt", "submittedAt",
+            "timeTaken", "timeTaken");
+
     @Autowired private QuizRepo quizRepo;
     @Autowired private QResultRepo qResultRepo;
     @Autowired private AssignmentRepo assignmentRepo;
     @Autowired private UserRepo customerRepo; // or CustomerRepo
 
-    public BatchQuizResultDto getBatchQuizResults(Long batchId, Long quizId, String instructorUsername) {
+    public BatchQuizResultDto getBatchQuizResults(Long batchId, Long quizId, String instructorUsername,
+                                                  int page, int size, String sort, String direction) {
 
         // 1. Validate Quiz & Batch
         Quiz quiz = quizRepo.findById(quizId)
@@ -38,75 +52,77 @@ public class BatchAnalyticsService {
             throw new RuntimeException("Unauthorized: You do not own this batch");
         }
 
-        // 3. Prepare DTO
+        // 3. Validate paging
+        if (page < 0) throw new RuntimeException("page must not be negative");
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new RuntimeException("size must be between 1 and " + MAX_PAGE_SIZE);
+        if (!SORT_COLUMNS.containsKey(sort)) throw new RuntimeException("sort must be one of " + SORT_COLUMNS.keySet());
+        Sort.Direction dir = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new RuntimeException("direction must be 'asc' or 'desc'"));
+
+        // 4. Prepare DTO
         BatchQuizResultDto response = new BatchQuizResultDto();
         response.setQuizTitle(quiz.getTitle());
-
-        // 4. Get Total Enrolled Students (For "Total Students" card)
-        long totalEnrolled = assignmentRepo.countByBatchId(batchId);
-        response.setTotalStudents(totalEnrolled);
-
-        // 5. Fetch Actual Results
-        List<QResult> submissions = qResultRepo.findByQuizId(quizId);
-        response.setStudentsCompleted(submissions.size());
-
-        if (submissions.isEmpty()) {
-            response.setAveragePercentage(0.0);
+        response.setTotalStudents(assignmentRepo.countByBatchId(batchId));
+
+        // 5. Class statistics over all finalized attempts (one query)
+        int passingMarks = quiz.getPassingMarks() != null ? quiz.getPassingMarks() : 0;
+        QuizResultAggregates.Summary summary = qResultRepo.summarizeResultsByQuiz(quizId, passingMarks);
+        long completed = summary.getCompleted() != null ? summary.getCompleted() : 0;
+
+        response.setStudentsCompleted((int) completed);
+        response.setAveragePercentage(round(summary.getAverage()));
+        response.setMedianPercentage(round(summary.getMedian()));
+        response.setP25Percentage(round(summary.getP25()));
+        response.setP75Percentage(round(summary.getP75()));
+        response.setP90Percentage(round(summary.getP90()));
+        response.setPassRate(round(summary.getPassRate()));
+        response.setHistogram(parseHistogram(summary.getHistogram()));
+
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotalPages((int) ((completed + size - 1) / size));
+
+        if (completed == 0 || (long) page * size >= completed) {
             response.setStudentResults(new ArrayList<>());
             return response;
         }
 
-        // 6. Map to StudentResultItemDto & Calculate Class Average
-        double totalPercentageSum = 0;
+        // 6. One page of rows (one query)
         List<StudentResultItemDto> resultList = new ArrayList<>();
-
-        for (QResult submission : submissions) {
+        for (QuizResultAggregates.ResultRow row : qResultRepo.findResultRowsByQuiz(quizId, PageRequest.of(page, size, resultOrder(sort, dir)))) {
             StudentResultItemDto item = new StudentResultItemDto();
+            item.setStudentId(row.getStudentId());
+            item.setStudentName(row.getStudentName());
+            item.setStudentEmail(row.getStudentEmail());
 
-            // Student Details
-            Customer student = submission.getStudent();
-            item.setStudentId(student.getId());
-            item.setStudentName(student.getUsername()); // Or student.getFullName()
-            item.setStudentEmail(student.getEmail());
-
-            // Score Details
-            double score = submission.getScoreObtained().doubleValue();
-            double total = submission.getTotalMarks().doubleValue();
+            double score = row.getScore() != null ? row.getScore() : 0;
             item.setScore(score);
-            item.setTotalMarks(total);
-
-            // Percentage
-            double pct = (total > 0) ? (score / total) * 100 : 0;
-            item.setPercentage(pct);
-            totalPercentageSum += pct;
-
-            // Dates & Time
-            item.setSubmittedAt(submission.getSubmitDate());
-
-            // Calculate Duration (Assuming you added startTime to QResult entity, otherwise 0)
-            // If QResult doesn't have startTime, remove this logic or return 0
-            /* if (submission.getStartTime() != null && submission.getSubmitDate() != null) {
-                long seconds = Duration.between(submission.getStartTime(), submission.getSubmitDate()).getSeconds();
-                item.setTimeTaken(seconds);
-            } else {
-                item.setTimeTaken(0L);
-            }
-            */
-            item.setTimeTaken(0L); // Placeholder until startTime is added to Entity
-
-            // Pass/Fail
-            boolean passed = score >= (quiz.getPassingMarks() != null ? quiz.getPassingMarks() : 0);
-            item.setPassed(passed);
+            item.setTotalMarks(row.getTotalMarks() != null ? row.getTotalMarks().doubleValue() : 0.0);
+            item.setPercentage(row.getPercentage());
+
+            item.setSubmittedAt(row.getSubmittedAt());
+            item.setTimeTaken(row.getTimeTaken());
+            item.setPassed(score >= passingMarks);
 
             resultList.add(item);
         }
-
         response.setStudentResults(resultList);
 
-        // 7. Finalize Average
-        double classAvg = totalPercentageSum / submissions.size();
-        response.setAveragePercentage(Math.round(classAvg * 10.0) / 10.0); // Round 1 decimal
-
         return response;
     }
-}
\ No newline at end of file
+
+    // Round 1 decimal; 0 when there is nothing to aggregate
+    private double round(Double value) {
+        return value == null ? 0.0 : Math.round(value * 10.0) / 10.0;
+    }
+
+    // studentId keeps the order stable across pages
+    public static Sort resultOrder(String sort, Sort.Direction dir) {
+        return Sort.by(dir, SORT_COLUMNS.get(sort)).and(Sort.by(Sort.Direction.ASC, "studentId"));
+    }
+
+    private List<Long> parseHistogram(String histogram) {
+        if (histogram == null || histogram.isEmpty()) return new ArrayList<>();
+        return Arrays.stream(histogram.split(",")).map(Long::valueOf).toList();
+    }
+}
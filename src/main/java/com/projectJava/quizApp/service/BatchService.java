@@ -1,12 +1,15 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.*;
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
 import com.projectJava.quizApp.model.*;
 import com.projectJava.quizApp.repo.*;
 import com.projectJava.quizApp.service.QuizService;
 import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -33,6 +36,13 @@ public class BatchService {
     @Autowired
     private QuizService quizService; // Ensure this is injected
 
+    @Autowired
+    private ExamPaperService examPaperService;
+    @Autowired
+    private AnswerKeyService answerKeyService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public StudentBatchDto getBatchDetailsForStudent(Long batchId, Long studentId) {
         // 1. SECURITY: Check if Student is enrolled in this Batch
         // (Ensure this method exists in AssignmentRepo, or use a custom query)
@@ -48,7 +58,7 @@ public class BatchService {
 
         // 3. Fetch Only ACTIVE Quizzes for this batch
         // (Reuse the logic from QuizService to filter by date/status)
-        List<QuizDto> validQuizzes = quizService.getQuizzesByBatch(batchId, studentId);
+        List<QuizDto> validQuizzes = quizService.getQuizzesByBatch(batchId, "STUDENT"); // enrollment was checked above
 
         // 4. Map to Safe DTO
         StudentBatchDto response = new StudentBatchDto();
@@ -147,9 +157,18 @@ public class BatchService {
         }
 
         // 4. Execution (Only reaches here if Empty OR forceDelete is TRUE)
+        List<Long> quizIds = quizRepo.findIdsByBatchId(batchId);
         assignmentRepo.deleteByBatchId(batchId); // Delete links
         quizRepo.deleteByBatchId(batchId);       // Delete quizzes
         batchRepo.delete(batch);                 // Delete class
+
+        // Deleted quizzes must not keep serving cached papers or answer keys
+        quizIds.forEach(examPaperService::evict);
+        quizIds.forEach(answerKeyService::invalidate);
+
+        Long profileId = batch.getInstructor().getId();
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(profileId, batchId, null));
+        eventPublisher.publishEvent(new QuizChangedEvent(profileId, null));
     }
 
     // Inside BatchService.java
@@ -337,5 +356,6 @@ public class BatchService {
 
         // 3. Save
         assignmentRepo.save(assignment);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(assignment.getInstructorProfile().getId(), batchId, studentId));
     }
 }
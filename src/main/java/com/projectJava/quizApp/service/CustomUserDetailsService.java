@@ -1,5 +1,6 @@
 package com.projectJava.quizApp.service;
 
+import com.projectJava.quizApp.model.AuthUser;
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,9 +34,12 @@ public class CustomUserDetailsService implements UserDetailsService {
                 password = "OAUTH2_USER_PLACEHOLDER";
             }
 
-            return new org.springframework.security.core.userdetails.User(
+            // AuthUser carries the id so JWTUtil can put it in the token
+            return new AuthUser(
+                    user.getId(),
                     user.getUsername(),
                     password,
+                    user.getRole(),
                     Collections.singleton(new SimpleGrantedAuthority(user.getRole()))
             );
     }
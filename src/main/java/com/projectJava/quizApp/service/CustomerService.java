@@ -16,6 +16,8 @@ public class CustomerService {
     private UserRepo userRepo;
     @Autowired
     PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserSecurityStateCache userSecurityStateCache;
 
     @Transactional
     public void changePasswordForAuthenticatedUser(String authenticatedUsername,
@@ -35,5 +37,6 @@ public class CustomerService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setPasswordChangedAt(Instant.now());
         userRepo.save(user);
+        userSecurityStateCache.evict(user.getUsername());
     }
 }
@@ -0,0 +1,151 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.DashboardResponseDto;
+import com.projectJava.quizApp.DTO.InstructorSummaryDto;
+import com.projectJava.quizApp.DTO.StudentDashboardDto;
+import com.projectJava.quizApp.DTO.UserDashboardDto;
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.utility.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assembled dashboard responses per user (instructor, batch student, individual user).
+ * Entries are evicted after commit by the domain events that change them: finalized attempts,
+ * enrollment changes and quiz create/publish/update/delete. The TTL only covers what has no
+ * event (announcements, instructor feedback) and time-based fields such as overdue quizzes.
+ */
+@Service
+public class DashboardCache {
+
+    private static final int MAX_USERS = 5_000;
+
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private StudentDashboardService studentDashboardService;
+    @Autowired
+    private UserDashboardService userDashboardService;
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final BoundedCache<String, DashboardResponseDto> instructors;
+    private final BoundedCache<Long, StudentDashboardDto> students;
+    private final BoundedCache<Long, UserDashboardDto> users;
+
+    // Events name instructor profiles, the instructor cache is keyed by username
+    private final Map<Long, String> instructorUsernames = new ConcurrentHashMap<>();
+
+    public DashboardCache(@Value("${dashboard.cache.ttl-seconds:300}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.instructors = new BoundedCache<>(MAX_USERS, ttl);
+        this.students = new BoundedCache<>(MAX_USERS, ttl);
+        this.users = new BoundedCache<>(MAX_USERS, ttl);
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        register("instructor", instructors);
+        register("student", students);
+        register("user", users);
+    }
+
+    private void register(String name, BoundedCache<?, ?> cache) {
+        FunctionCounter.builder("dashboard.cache.hits", cache, BoundedCache::hitCount)
+                .tag("cache", name).description("Dashboard responses served from memory").register(meterRegistry);
+        FunctionCounter.builder("dashboard.cache.misses", cache, BoundedCache::missCount)
+                .tag("cache", name).description("Dashboard responses rebuilt from the database").register(meterRegistry);
+        FunctionCounter.builder("dashboard.cache.evictions", cache, BoundedCache::evictionCount)
+                .tag("cache", name).description("Entries dropped by events, expiry or size").register(meterRegistry);
+        Gauge.builder("dashboard.cache.hit.ratio", cache, DashboardCache::hitRatio)
+                .tag("cache", name).register(meterRegistry);
+        Gauge.builder("dashboard.cache.size", cache, BoundedCache::size)
+                .tag("cache", name).register(meterRegistry);
+    }
+
+    private static double hitRatio(BoundedCache<?, ?> cache) {
+        long total = cache.hitCount() + cache.missCount();
+        return total == 0 ? 0 : (double) cache.hitCount() / total;
+    }
+
+    // --- Read side ---
+
+    // Partial pages (a section timed out) are returned but not cached
+    // An eviction while a dashboard is being assembled keeps that (possibly stale) result out of the cache
+    public DashboardResponseDto getInstructorDashboard(String username) {
+        return instructors.get(username, name -> {
+            instructorStatsService.findProfileId(name).ifPresent(id -> instructorUsernames.put(id, name));
+            return dashboardService.getDashboardData(name);
+        }, dashboard -> !dashboard.isPartial());
+    }
+
+    public StudentDashboardDto getStudentDashboard(Long studentId) {
+        return students.get(studentId, studentDashboardService::getDashboardData, dashboard -> !dashboard.isPartial());
+    }
+
+    public UserDashboardDto getUserDashboard(Long userId) {
+        return users.get(userId, userDashboardService::getUserDashboardData);
+    }
+
+    // --- Eviction (after commit, so a reload never sees the old rows; the sweeper publishes outside a transaction) ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        students.invalidate(event.studentId());
+        users.invalidate(event.studentId());
+        if (instructors.size() > 0) {
+            List<Long> owner = jdbcTemplate.queryForList(
+                    "SELECT b.instructor_profile_id FROM quiz q JOIN batches b ON b.id = q.batch_id WHERE q.id = ?",
+                    Long.class, event.quizId());
+            owner.forEach(this::evictInstructor);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        evictInstructor(event.instructorProfileId());
+        if (event.studentId() != null) {
+            students.invalidate(event.studentId());
+        } else {
+            evictStudentsOf(event.instructorProfileId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        evictInstructor(event.instructorProfileId());
+        evictStudentsOf(event.instructorProfileId());
+    }
+
+    private void evictInstructor(Long profileId) {
+        if (profileId == null) return;
+        String username = instructorUsernames.get(profileId);
+        if (username != null) instructors.invalidate(username);
+    }
+
+    // Students whose dashboard lists this instructor
+    private void evictStudentsOf(Long profileId) {
+        if (profileId == null) return;
+        String id = profileId.toString();
+        students.invalidateIf((studentId, dto) -> dto.getInstructors() != null
+                && dto.getInstructors().stream().map(InstructorSummaryDto::getId).anyMatch(id::equals));
+    }
+}
@@ -0,0 +1,111 @@
+package com.projectJava.quizApp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Loads independent dashboard sections side by side, one virtual thread and one read-only
+ * transaction per section (so lazy associations still load). A section that fails or runs past
+ * its timeout is cancelled and replaced by its fallback; the page is then marked partial.
+ * At most dashboard.section.max-concurrent sections run at once across all requests, so a burst of
+ * page loads cannot take every pooled connection, and the section timeout is also the transaction
+ * timeout, so the database stops a query the page has already given up on.
+ */
+@Component
+public class DashboardSections {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSections.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate readOnly;
+    private final Duration defaultTimeout;
+    private final Semaphore permits;
+
+    public DashboardSections(PlatformTransactionManager transactionManager,
+                             @Value("${dashboard.section.timeout-ms:2000}") long timeoutMs,
+                             @Value("${dashboard.section.max-concurrent:8}") int maxConcurrent) {
+        this.transactionManager = transactionManager;
+        this.defaultTimeout = Duration.ofMillis(timeoutMs);
+        this.readOnly = readOnly(defaultTimeout);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    // Statements of the section's transaction get the time it has left (whole seconds, rounded up)
+    private TransactionTemplate readOnly(Duration timeout) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+        return template;
+    }
+
+    // One page load; forks share its degraded flag
+    public Scope open() {
+        return new Scope();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Scope {
+
+        private final AtomicBoolean degraded = new AtomicBoolean();
+
+        public <T> CompletableFuture<T> fork(String name, Supplier<T> task, T fallback) {
+            return fork(name, defaultTimeout, task, fallback);
+        }
+
+        // Never completes exceptionally: errors and timeouts yield the fallback
+        public <T> CompletableFuture<T> fork(String name, Duration timeout, Supplier<T> task, T fallback) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            TransactionTemplate template = timeout.equals(defaultTimeout) ? readOnly : readOnly(timeout);
+            Future<?> running = executor.submit(() -> {
+                // Waiting for a permit counts against the section's timeout
+                boolean acquired = false;
+                try {
+                    permits.acquire();
+                    acquired = true;
+                    result.complete(template.execute(status -> task.get()));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    if (acquired) permits.release();
+                }
+            });
+
+            return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).exceptionally(ex -> {
+                running.cancel(true);
+                degraded.set(true);
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof TimeoutException) {
+                    log.warn("Dashboard section '{}' timed out after {} ms", name, timeout.toMillis());
+                } else {
+                    log.warn("Dashboard section '{}' failed: {}", name, cause.getMessage());
+                }
+                return fallback;
+            });
+        }
+
+        public boolean isDegraded() {
+            return degraded.get();
+        }
+    }
+}
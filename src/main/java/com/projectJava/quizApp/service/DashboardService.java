@@ -8,34 +8,54 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.TextStyle;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
-import java.util.Locale;
 
 @Service
 public class DashboardService {
 
-    @Autowired private AssignmentRepo assignmentRepo;
-    @Autowired private QResultRepo qResultRepo;
-    @Autowired private QuizRepo quizRepo;
+    @Autowired private InstructorStatsService instructorStatsService;
+    @Autowired private InstructorStudentStatsRepo studentStatsRepo;
+    @Autowired private InstructorQuizStatsRepo quizStatsRepo;
+    @Autowired private InstructorDailySnapshotRepo dailySnapshotRepo;
+    @Autowired private ActivitySeriesService activitySeriesService;
+    @Autowired private DashboardSections dashboardSections;
 
     public DashboardResponseDto getDashboardData(String username) {
         DashboardResponseDto response = new DashboardResponseDto();
 
-        // 1. Fetch Raw Data
-        long totalStudents = assignmentRepo.countStudentsByInstructor(username);
-        List<QResult> allResults = qResultRepo.findAllByInstructor(username);
+        // 1. Fetch the Snapshot (one row, kept current on every submission / enrollment / quiz change).
+        // Everything else reads rows the snapshot build fills in, so it comes first.
+        Long profileId = instructorStatsService.findProfileId(username).orElse(null);
+        InstructorStats stats = profileId != null ? instructorStatsService.getStats(profileId) : new InstructorStats();
+
+        // Independent sections load side by side; a slow one degrades to an empty table / chart
+        DashboardSections.Scope sections = dashboardSections.open();
+        CompletableFuture<List<InstructorStudentStats>> studentRows = sections.fork("students",
+                () -> profileId != null ? studentStatsRepo.findByInstructorProfileId(profileId) : List.<InstructorStudentStats>of(),
+                List.of());
+        CompletableFuture<InstructorDailySnapshot> lastWeekRow = sections.fork("lastWeek",
+                () -> profileId == null ? null : dailySnapshotRepo
+                        .findFirstByInstructorProfileIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+                                profileId, LocalDate.now().minusDays(7))
+                        .orElse(null),
+                null);
+        CompletableFuture<ChartDataDto> engagement = sections.fork("engagement", () -> buildEngagementChart(profileId), emptyChart());
+        CompletableFuture<List<DashboardAggregates.QuizAggregate>> quizRows = sections.fork("performance",
+                () -> profileId != null ? quizStatsRepo.aggregateByTitle(profileId) : List.<DashboardAggregates.QuizAggregate>of(),
+                List.of());
+
+        List<InstructorStudentStats> byStudent = studentRows.join();
+        long totalStudents = stats.getTotalStudents();
 
         // 2. Calculate Global Averages
-        double overallSum = allResults.stream()
-                .mapToDouble(r -> (r.getTotalMarks() > 0) ? (r.getScoreObtained().doubleValue() / r.getTotalMarks()) * 100 : 0)
-                .sum();
-        double overallAvg = allResults.isEmpty() ? 0 : overallSum / allResults.size();
+        long totalAttempts = stats.getTotalAttempts();
+        double overallAvg = totalAttempts == 0 ? 0 : stats.getPctSum() / totalAttempts;
         overallAvg = Math.round(overallAvg * 10.0) / 10.0;
 
         // 3. Process Student Performance (Top & Attention)
-        List<StudentPerformanceDto> studentStats = calculateStudentStats(allResults);
+        List<StudentPerformanceDto> studentStats = calculateStudentStats(byStudent);
 
         // Sort for Top Students (High Score -> Low Score)
         List<StudentPerformanceDto> topStudents = studentStats.stream()
@@ -50,113 +70,109 @@ public class DashboardService {
                 .limit(5)
                 .collect(Collectors.toList());
 
-        List<Long> durationsInSeconds = allResults.stream()
-                .filter(r -> r.getStartTime() != null && r.getSubmitDate() != null)
-                .map(r -> java.time.Duration.between(r.getStartTime(), r.getSubmitDate()).toSeconds())
-                .collect(Collectors.toList());
-
         String avgTimeString = "N/A";
 
-        if (!durationsInSeconds.isEmpty()) {
-            double avgSeconds = durationsInSeconds.stream().mapToLong(val -> val).average().orElse(0.0);
+        if (stats.getTimedAttempts() > 0) {
+            double avgSeconds = (double) stats.getDurationSecondsSum() / stats.getTimedAttempts();
             long min = (long) (avgSeconds / 60);
             long sec = (long) (avgSeconds % 60);
             avgTimeString = min + " min " + sec + " sec";
         }
 
-        // Set it in the QuickStats
-        long topPerformerCount = 0;
-        response.setQuickStats(QuickStatsDto.builder()
-                .totalStudents(totalStudents)
-                .topPerformers(topPerformerCount)
-                .averageScore(overallAvg)
-                .averageCompletionTime(avgTimeString) // <--- REAL VALUE
-                .build());
-
         response.setTopStudents(topStudents);
         response.setStudentsNeedingAttention(attentionNeeded);
 
-        // 4. Stat Cards
-        response.setStats(buildStatCards(totalStudents, allResults, overallAvg));
+        // 4. Stat Cards (change = difference to the stored snapshot from a week ago)
+        LocalDateTime activeSince = LocalDateTime.now().minusDays(InstructorStatsService.ACTIVE_DAYS);
+        long activeCount = byStudent.stream()
+                .filter(row -> row.getLastSubmitAt() != null && row.getLastSubmitAt().isAfter(activeSince))
+                .count();
+        InstructorDailySnapshot lastWeek = lastWeekRow.join();
+        response.setStats(buildStatCards(totalStudents, activeCount, overallAvg, lastWeek));
 
         // 5. Quick Stats
-        topPerformerCount = studentStats.stream().filter(s -> s.getAverageScore() >= 90).count();
         response.setQuickStats(QuickStatsDto.builder()
                 .totalStudents(totalStudents)
-                .topPerformers(topPerformerCount)
+                .topPerformers(stats.getBandExcellent())
                 .averageScore(overallAvg)
-                .averageCompletionTime(avgTimeString) // Need startTime in entity to calc this
+                .averageCompletionTime(avgTimeString)
                 .build());
 
         // 6. Charts
-        response.setStudentEngagement(buildEngagementChart(username));
-        response.setStudentPerformance(buildPerformanceBarChart(allResults));
-        response.setQuizCompletion(buildCompletionPieChart(allResults, username)); // Simplified
-        response.setPerformanceDistribution(buildDistributionChart(studentStats));
+        response.setStudentEngagement(engagement.join());
+        response.setStudentPerformance(buildPerformanceBarChart(quizRows.join()));
+        response.setQuizCompletion(buildCompletionPieChart(totalAttempts, totalStudents * stats.getQuizCount()));
+        response.setPerformanceDistribution(buildDistributionChart(stats));
 
+        response.setPartial(sections.isDegraded());
         return response;
     }
 
-    // --- Helper Methods ---
+    // Engagement over any range (up to a year), per day or per week, optionally for one batch
+    public ChartDataDto getEngagement(String username, int days, String granularity, Long batchId) {
+        Long profileId = instructorStatsService.findProfileId(username)
+                .orElseThrow(() -> new RuntimeException("Instructor profile not found"));
 
-    private List<StudentPerformanceDto> calculateStudentStats(List<QResult> results) {
-        // Group results by Student ID
-        Map<Long, List<QResult>> byStudent = results.stream()
-                .collect(Collectors.groupingBy(r -> r.getStudent().getId()));
+        // Buckets are backfilled together with the snapshot
+        instructorStatsService.getStats(profileId);
+        return activitySeriesService.series(profileId, batchId, days, granularity);
+    }
 
-        List<StudentPerformanceDto> dtos = new ArrayList<>();
+    // --- Helper Methods ---
 
-        for (Map.Entry<Long, List<QResult>> entry : byStudent.entrySet()) {
-            List<QResult> studentResults = entry.getValue();
-            if (studentResults.isEmpty()) continue;
+    private List<StudentPerformanceDto> calculateStudentStats(List<InstructorStudentStats> rows) {
+        // Keyed by student id in a HashMap, so ties keep the same order as the old groupingBy
+        Map<Long, StudentPerformanceDto> byStudent = new HashMap<>();
 
-            String name = studentResults.get(0).getStudent().getUsername(); // Or full name
+        for (InstructorStudentStats row : rows) {
+            if (row.getAttempts() == 0) continue;
 
-            double totalPct = studentResults.stream()
-                    .mapToDouble(r -> (r.getTotalMarks() > 0) ? (r.getScoreObtained().doubleValue()/r.getTotalMarks())*100 : 0)
-                    .sum();
-            double avg = totalPct / studentResults.size();
+            double avg = row.getPctSum() / row.getAttempts();
 
             String status = "Average";
             if(avg >= 90) status = "Excellent";
             else if(avg >= 75) status = "Good";
 
-            dtos.add(StudentPerformanceDto.builder()
-                    .name(name)
+            byStudent.put(row.getStudentId(), StudentPerformanceDto.builder()
+                    .name(row.getUsername()) // Or full name
                     .averageScore(Math.round(avg * 10.0) / 10.0)
-                    .quizzesCompleted(studentResults.size())
+                    .quizzesCompleted((int) row.getAttempts())
                     .status(status)
                     .build());
         }
-        return dtos;
+        return new ArrayList<>(byStudent.values());
     }
 
-    private List<StatCardDto> buildStatCards(long totalStudents, List<QResult> results, double avgScore) {
+    private List<StatCardDto> buildStatCards(long totalStudents, long activeCount, double avgScore,
+                                             InstructorDailySnapshot lastWeek) {
         List<StatCardDto> cards = new ArrayList<>();
 
+        // Counts change in percent, the average score in percentage points; 0 without history
+        double studentChange = 0;
+        double activeChange = 0;
+        double scoreChange = 0;
+        if (lastWeek != null) {
+            studentChange = percentChange(totalStudents, lastWeek.getTotalStudents());
+            activeChange = percentChange(activeCount, lastWeek.getActiveStudents());
+            double lastWeekAvg = lastWeek.getTotalAttempts() == 0 ? 0 : lastWeek.getPctSum() / lastWeek.getTotalAttempts();
+            scoreChange = Math.round((avgScore - lastWeekAvg) * 10.0) / 10.0;
+        }
+
         // Card 1: Total Students
         cards.add(StatCardDto.builder()
                 .title("Total Students")
                 .value(String.valueOf(totalStudents))
-                .change(0) // Logic for "change" requires historical data
-                .changeType("increase")
+                .change(Math.abs(studentChange))
+                .changeType(studentChange < 0 ? "decrease" : "increase")
                 .period("All time")
                 .build());
 
         // Card 2: Active Students (Submitted in last 7 days)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        long activeCount = results.stream()
-                .filter(r -> r.getSubmitDate() != null) // <--- ADD THIS NULL CHECK
-                .filter(r -> r.getSubmitDate().isAfter(sevenDaysAgo))
-                .map(r -> r.getStudent().getId())
-                .distinct()
-                .count();
-
         cards.add(StatCardDto.builder()
                 .title("Active Students")
                 .value(String.valueOf(activeCount))
-                .change(0)
-                .changeType("increase")
+                .change(Math.abs(activeChange))
+                .changeType(activeChange < 0 ? "decrease" : "increase")
                 .period("Last 7 days")
                 .build());
 
@@ -164,72 +180,42 @@ public class DashboardService {
         cards.add(StatCardDto.builder()
                 .title("Average Score")
                 .value(avgScore + "%")
-                .change(0)
-                .changeType("increase")
+                .change(Math.abs(scoreChange))
+                .changeType(scoreChange < 0 ? "decrease" : "increase")
                 .period("All Quizzes")
                 .build());
 
         return cards;
     }
 
-    private ChartDataDto buildEngagementChart(String username) {
-        // 1. Calculate the date range (Last 7 Days)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(6).withHour(0).withMinute(0);
-
-        // 2. Fetch REAL data from Database
-        // This gets every quiz result submitted by your students in the last week
-        List<QResult> recentResults = qResultRepo.findRecentResultsByInstructor(username, sevenDaysAgo);
-
-        // 3. Prepare buckets for the last 7 days (Map<DateString, Count>)
-        Map<LocalDate, Long> countsByDate = new LinkedHashMap<>();
-        List<String> labels = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        // Initialize map with 0 for all 7 days (so days with no quizzes still show up)
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = now.minusDays(i).toLocalDate();
-            countsByDate.put(date, 0L);
-            // Label format: "Mon", "Tue"
-            labels.add(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.US));
-        }
-
-        // 4. Fill buckets with actual counts
-        for (QResult result : recentResults) {
-            if (result.getSubmitDate() == null) {
-                continue; // Skip active quizzes
-            }
-            LocalDate submitDate = result.getSubmitDate().toLocalDate();
-            // Increment count if the date is in our range
-            if (countsByDate.containsKey(submitDate)) {
-                countsByDate.put(submitDate, countsByDate.get(submitDate) + 1);
-            }
-        }
+    private double percentChange(long current, long previous) {
+        if (previous == 0) return 0;
+        return Math.round((current - previous) * 1000.0 / previous) / 10.0;
+    }
 
-        // 5. Extract just the numbers for the chart
-        List<Number> data = new ArrayList<>(countsByDate.values());
+    private ChartDataDto emptyChart() {
+        return ChartDataDto.builder().labels(List.of()).datasets(List.of()).build();
+    }
 
+    private ChartDataDto buildEngagementChart(Long profileId) {
+        // Last 7 days from the daily activity buckets; the dashboard only plots completions
+        ChartDataDto series = activitySeriesService.series(profileId, null, 7, "daily");
         return ChartDataDto.builder()
-                .labels(labels)
-                .datasets(List.of(
-                        ChartDataDto.DatasetDto.builder()
-                                .label("Quiz Completions")
-                                .data(data) // Now contains REAL counts like [0, 2, 5, 1, 0...]
-                                .build()
-                ))
+                .labels(series.getLabels())
+                .datasets(List.of(series.getDatasets().get(0)))
                 .build();
     }
-    private ChartDataDto buildPerformanceBarChart(List<QResult> results) {
-        // Group by Quiz Title and get Avg Score
-        Map<String, DoubleSummaryStatistics> stats = results.stream()
-                .collect(Collectors.groupingBy(
-                        r -> r.getQuiz().getTitle(),
-                        Collectors.summarizingDouble(r -> (r.getTotalMarks()>0)?(r.getScoreObtained().doubleValue()/r.getTotalMarks())*100:0)
-                ));
-
-        List<String> labels = new ArrayList<>(stats.keySet());
+    private ChartDataDto buildPerformanceBarChart(List<DashboardAggregates.QuizAggregate> rows) {
+        // Avg Score per Quiz Title; a HashMap keeps the label order the old groupingBy produced
+        Map<String, Double> averages = new HashMap<>();
+        for (DashboardAggregates.QuizAggregate row : rows) {
+            averages.put(row.getTitle(), row.getPctSum() / row.getAttempts());
+        }
+
+        List<String> labels = new ArrayList<>(averages.keySet());
         List<Number> data = new ArrayList<>();
         for(String label : labels) {
-            data.add(Math.round(stats.get(label).getAverage()));
+            data.add(Math.round(averages.get(label)));
         }
 
         return ChartDataDto.builder()
@@ -238,26 +224,23 @@ public class DashboardService {
                 .build();
     }
 
-    private ChartDataDto buildCompletionPieChart(List<QResult> results,String username) {
+    private ChartDataDto buildCompletionPieChart(long completed, long totalAssignments) {
         // In a real app, compare 'Total Assignments' vs 'Total Results'
         // Here we just map results count as "Completed"
-        long totalStudents = assignmentRepo.countStudentsByInstructor(username);
-        long totalAssignments = totalStudents * quizRepo.countByInstructor(username);
-        long completed = results.size();
         long pending = Math.max(0, totalAssignments - completed);
-// Use 'pending' instead of 20
 
         return ChartDataDto.builder()
                 .labels(List.of("Completed", "Pending")) // Pending hard to calc without total expected
-                .datasets(List.of(ChartDataDto.DatasetDto.builder().data(List.of(results.size(), pending)).build()))
+                .datasets(List.of(ChartDataDto.DatasetDto.builder().data(List.of((int) completed, pending)).build()))
                 .build();
     }
 
-    private ChartDataDto buildDistributionChart(List<StudentPerformanceDto> students) {
-        long excellent = students.stream().filter(s -> s.getAverageScore() >= 90).count();
-        long good = students.stream().filter(s -> s.getAverageScore() >= 75 && s.getAverageScore() < 90).count();
-        long average = students.stream().filter(s -> s.getAverageScore() >= 60 && s.getAverageScore() < 75).count();
-        long poor = students.stream().filter(s -> s.getAverageScore() < 60).count();
+    private ChartDataDto buildDistributionChart(InstructorStats stats) {
+        // Band counts are maintained with the snapshot; no per-student pass needed
+        long excellent = stats.getBandExcellent();
+        long good = stats.getBandGood();
+        long average = stats.getBandAverage();
+        long poor = stats.getBandPoor();
 
         return ChartDataDto.builder()
                 .labels(List.of("90-100%", "75-89%", "60-74%", "Below 60%"))
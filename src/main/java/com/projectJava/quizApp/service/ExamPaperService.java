@@ -0,0 +1,112 @@
+package com.projectJava.quizApp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.model.Question;
+import com.projectJava.quizApp.model.QuestionWrapper;
+import com.projectJava.quizApp.repo.QuestionRepo;
+import com.projectJava.quizApp.repo.QuizRepo;
+import com.projectJava.quizApp.utility.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Serves exam papers (the student-safe question list) as pre-serialized JSON.
+ * The quiz metadata needed for the access checks is cached next to it, so a
+ * request for an already built paper does not touch the database at all.
+ */
+@Service
+public class ExamPaperService {
+
+    private static final int MAX_CACHED_QUIZZES = 500;
+
+    @Autowired
+    private QuizRepo quizRepo;
+    @Autowired
+    private QuestionRepo questionRepo;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final BoundedCache<Long, QuizMeta> metaCache = new BoundedCache<>(MAX_CACHED_QUIZZES);
+    private final BoundedCache<Long, ExamPaper> paperCache = new BoundedCache<>(MAX_CACHED_QUIZZES);
+
+    // Null when the quiz does not exist
+    public QuizMeta getMeta(Long quizId) {
+        return metaCache.get(quizId, id -> quizRepo.findById(id)
+                .map(q -> new QuizMeta(q.getStatus(), q.getStartDate(), q.getEndDate()))
+                .orElse(null));
+    }
+
+    // Built once per quiz version; only call this after the access checks passed
+    public ExamPaper getPaper(Long quizId) {
+        return paperCache.get(quizId, this::buildPaper);
+    }
+
+    // Call on any question edit or quiz update (status, dates, delete)
+    public void evict(Long quizId) {
+        if (quizId == null) return;
+        metaCache.invalidate(quizId);
+        paperCache.invalidate(quizId);
+
+        // Evict again after commit, so a request racing with the transaction cannot re-cache the old paper
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    metaCache.invalidate(quizId);
+                    paperCache.invalidate(quizId);
+                }
+            });
+        }
+    }
+
+    private ExamPaper buildPaper(Long quizId) {
+        List<Question> questions = questionRepo.findByQuizId(quizId);
+        List<QuestionWrapper> safeQuestions = questions.stream()
+                .map(q -> new QuestionWrapper(
+                        q.getId(),
+                        q.getQuestionTitle(),
+                        q.getOption1(),
+                        q.getOption2(),
+                        q.getOption3(),
+                        q.getOption4(),
+                        q.getMarks()
+                ))
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(safeQuestions);
+            return new ExamPaper(json, strongEtag(json));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not prepare quiz questions: " + e.getMessage());
+        }
+    }
+
+    private String strongEtag(byte[] body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+        return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+
+    public record QuizMeta(QuizStatus status, LocalDateTime startDate, LocalDateTime endDate) {
+    }
+
+    public record ExamPaper(byte[] json, String etag) {
+
+        // True when any tag in an If-None-Match header names this paper
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+                if (candidate.equals("*") || candidate.equals(etag)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,79 +1,133 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.ExploreDtos.*;
-import com.projectJava.quizApp.enums.QuizStatus;
-import com.projectJava.quizApp.model.Quiz;
-import com.projectJava.quizApp.repo.QResultRepo;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.repo.QuizPopularityRepo;
 import com.projectJava.quizApp.repo.QuizRepo;
 import org.springframework.beans.factory.annotation.Autowired;
-// --- FIX 1: Correct Imports ---
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
 public class ExploreService {
 
     @Autowired private QuizRepo quizRepo;
-    @Autowired private QResultRepo qResultRepo;
+    @Autowired private QuizPopularityRepo quizPopularityRepo;
+
+    public static final int MAX_PAGE_SIZE = 100;
 
     private final List<String> CORE_CATEGORIES = Arrays.asList(
             "Java", "Python", "History", "Math", "Science", "General Knowledge"
     );
 
-    // 1. Get Categories
+    private static final List<String> DIFFICULTY_ORDER = List.of("Easy", "Medium", "Hard");
+
+    private record Catalogue(List<ExploreCategoryDto> categories, Instant loadedAt) {}
+
+    // Rebuilt on demand; dropped when a quiz changes or after the TTL
+    private volatile Catalogue catalogue;
+    private final AtomicLong catalogueVersion = new AtomicLong();
+
+    @Value("${explore.categories.ttl-seconds:600}")
+    private long catalogueTtlSeconds;
+
+    // 1. Get Categories (core subjects first, then subjects created on the fly, largest first)
     public List<ExploreCategoryDto> getCategories() {
-        return CORE_CATEGORIES.stream().map(coreSubject -> {
-            long count = quizRepo.countBySubjectIgnoringCase(coreSubject);
-            if (count == 0) return null;
-            return mapSubjectToCategory(coreSubject);
-        }).filter(Objects::nonNull).collect(Collectors.toList());
+        Catalogue current = catalogue;
+        if (current != null && current.loadedAt().plusSeconds(catalogueTtlSeconds).isAfter(Instant.now())) {
+            return current.categories();
+        }
+
+        // A change that lands while we load makes this copy stale; it is returned but not kept
+        long version = catalogueVersion.get();
+        List<ExploreCategoryDto> categories = loadCategories();
+        synchronized (catalogueVersion) {
+            if (catalogueVersion.get() == version) catalogue = new Catalogue(categories, Instant.now());
+        }
+        return categories;
     }
 
-    // 2. Get Trending Quizzes (FIXED PAGINATION)
-    public Page<TrendingQuizDto> getTrendingQuizzes(int pageNumber, int size) {
-        // --- FIX 2: Create PageRequest ---
-        Pageable pageable = PageRequest.of(pageNumber, size);
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuizChanged(QuizChangedEvent event) {
+        synchronized (catalogueVersion) {
+            catalogueVersion.incrementAndGet();
+            catalogue = null;
+        }
+    }
 
-        // Fetch Page<Quiz>
-        Page<Quiz> quizPage = quizRepo.findByStatus(QuizStatus.PUBLISHED, pageable);
-
-        // --- FIX 3: Use .map() directly on the Page object ---
-        // This preserves the pagination metadata (total pages, total elements)
-        return quizPage.map(quiz -> {
-            long attempts = qResultRepo.countByQuizId(quiz.getId());
-
-            String diff = quiz.getDifficulty();
-            // Handle missing difficulty
-            if (diff == null) {
-                if (quiz.getTotalMarks() > 0) {
-                    double ratio = (double) quiz.getPassingMarks() / quiz.getTotalMarks();
-                    if (ratio < 0.4) diff = "Easy";
-                    else if (ratio > 0.7) diff = "Hard";
-                    else diff = "Medium";
-                } else {
-                    diff = "Medium";
-                }
-            }
+    private List<ExploreCategoryDto> loadCategories() {
+        // 1. Merge the grouped rows by subject, ignoring case; core subjects keep their canonical name
+        Map<String, String> names = new HashMap<>();
+        Map<String, Map<String, Long>> difficulties = new HashMap<>();
+        for (SubjectDifficultyCount row : quizRepo.countPublicBySubjectAndDifficulty()) {
+            String subject = row.getSubject().trim();
+            String key = subject.toLowerCase();
+            names.putIfAbsent(key, CORE_CATEGORIES.stream().filter(subject::equalsIgnoreCase).findFirst().orElse(subject));
+            difficulties.computeIfAbsent(key, k -> new HashMap<>())
+                    .merge(normalizeDifficulty(row.getDifficulty()), row.getQuizCount(), Long::sum);
+        }
 
-            return TrendingQuizDto.builder()
-                    .id(quiz.getId())
-                    .title(quiz.getTitle())
-                    .category(quiz.getSubject())
-                    .difficulty(diff)
-                    .attempts(attempts)
-                    .rating(4.5)
-                    .build();
+        // 2. Build the DTOs with totals and an ordered difficulty breakdown
+        List<ExploreCategoryDto> categories = new ArrayList<>();
+        names.forEach((key, name) -> {
+            Map<String, Long> breakdown = new LinkedHashMap<>();
+            difficulties.get(key).entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Long> e) -> difficultyRank(e.getKey()))
+                            .thenComparing(Map.Entry::getKey))
+                    .forEach(e -> breakdown.put(e.getKey(), e.getValue()));
+
+            ExploreCategoryDto dto = mapSubjectToCategory(name);
+            dto.setQuizCount(breakdown.values().stream().mapToLong(Long::longValue).sum());
+            dto.setDifficulties(breakdown);
+            categories.add(dto);
         });
+
+        // 3. Core categories in their usual order, then the rest by size
+        categories.sort(Comparator.comparingInt((ExploreCategoryDto c) -> coreRank(c.getName()))
+                .thenComparing(ExploreCategoryDto::getQuizCount, Comparator.reverseOrder())
+                .thenComparing(ExploreCategoryDto::getName));
+        return List.copyOf(categories);
+    }
+
+    private int coreRank(String subject) {
+        int i = CORE_CATEGORIES.indexOf(subject);
+        return i >= 0 ? i : CORE_CATEGORIES.size();
+    }
+
+    private static int difficultyRank(String difficulty) {
+        int i = DIFFICULTY_ORDER.indexOf(difficulty);
+        return i >= 0 ? i : DIFFICULTY_ORDER.size();
+    }
+
+    // "easy" / "EASY" -> "Easy"; quizzes without one are counted as "Unrated"
+    private static String normalizeDifficulty(String difficulty) {
+        if (difficulty == null || difficulty.isBlank()) return "Unrated";
+        String d = difficulty.trim();
+        return d.substring(0, 1).toUpperCase() + d.substring(1).toLowerCase();
     }
 
-    public List<TrendingQuizDto> getQuizzesBySubject(String subject) {
-        List<Quiz> quizzes = quizRepo.findBySubjectIgnoreCaseAndBatchIsNull(subject);
-        return mapToTrendingDto(quizzes);
+    // 2. Get Trending Quizzes (ordered by the decayed trending score, counters read in the same query)
+    public Page<TrendingQuizDto> getTrendingQuizzes(int pageNumber, int size) {
+        Pageable pageable = PageRequest.of(pageNumber, size);
+        return quizPopularityRepo.findTrending(pageable).map(this::toTrendingDto);
+    }
+
+    // 3. Public quizzes of one subject, most popular first
+    public List<TrendingQuizDto> getQuizzesBySubject(String subject, int page, int size) {
+        if (page < 0) throw new RuntimeException("page must not be negative");
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new RuntimeException("size must be between 1 and " + MAX_PAGE_SIZE);
+        return quizPopularityRepo.findPublicBySubject(subject, PageRequest.of(page, size)).stream()
+                .map(this::toTrendingDto)
+                .collect(Collectors.toList());
     }
 
     // Helper: Map Subject String to Icon
@@ -105,21 +159,33 @@ public class ExploreService {
                 .name(subject).description(desc).icon(icon).tag(tag).build();
     }
 
-    // Helper: Map List<Quiz> to List<DTO>
-    private List<TrendingQuizDto> mapToTrendingDto(List<Quiz> quizzes) {
-        return quizzes.stream().map(quiz -> {
-            long attempts = qResultRepo.countByQuizId(quiz.getId());
-            String diff = quiz.getDifficulty();
-            if (diff == null) diff = "Medium";
-
-            return TrendingQuizDto.builder()
-                    .id(quiz.getId())
-                    .title(quiz.getTitle())
-                    .category(quiz.getSubject())
-                    .difficulty(diff)
-                    .attempts(attempts)
-                    .rating(4.5)
-                    .build();
-        }).collect(Collectors.toList());
+    // Helper: Map a popularity row to the DTO
+    private TrendingQuizDto toTrendingDto(TrendingQuizRow row) {
+        String diff = row.getDifficulty();
+        // Handle missing difficulty
+        if (diff == null) {
+            Integer total = row.getTotalMarks();
+            if (total != null && total > 0 && row.getPassingMarks() != null) {
+                double ratio = (double) row.getPassingMarks() / total;
+                if (ratio < 0.4) diff = "Easy";
+                else if (ratio > 0.7) diff = "Hard";
+                else diff = "Medium";
+            } else {
+                diff = "Medium";
+            }
+        }
+
+        long ratingCount = row.getRatingCount() != null ? row.getRatingCount() : 0;
+        double rating = ratingCount > 0 ? Math.round(row.getRatingSum() * 10.0 / ratingCount) / 10.0 : 0.0;
+
+        return TrendingQuizDto.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .category(row.getSubject())
+                .difficulty(diff)
+                .attempts(row.getAttempts() != null ? row.getAttempts() : 0)
+                .rating(rating)
+                .ratingCount(ratingCount)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.CreateInstructorProfileRequest;
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
 import com.projectJava.quizApp.model.Batch; // Import Batch
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.model.InstructorProfile;
@@ -12,6 +13,7 @@ import com.projectJava.quizApp.repo.UserRepo;
 import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -27,6 +29,8 @@ public class InstructorService {
     private InstructorProfileRepo profileRepo;
     @Autowired
     private BatchRepo batchRepo; // Add this!
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public Optional<InstructorProfile> findByUserId(Long userId){
         return profileRepo.findByCustomer_Id(userId);
@@ -86,6 +90,7 @@ public class InstructorService {
         assignments.setNotes("Joined Class: " + batch.getBatchName());
 
         assignmentRepo.save(assignments);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(batch.getInstructor().getId(), batch.getId(), studentId));
     }
 
     @Transactional
@@ -116,6 +121,8 @@ public class InstructorService {
 
         assignment.setActive(false);
         assignmentRepo.save(assignment);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(profile.getId(),
+                assignment.getBatch() != null ? assignment.getBatch().getId() : null, studentId));
     }
 
     public List<InstructorStudentAssignment> getStudents(Long instructorProfileId){
@@ -0,0 +1,288 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.model.InstructorStats;
+import com.projectJava.quizApp.model.InstructorStudentStats;
+import com.projectJava.quizApp.repo.InstructorStatsRepo;
+import com.projectJava.quizApp.repo.InstructorStudentStatsRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the instructor dashboard snapshot (instructor_stats and its per-student / per-quiz rows)
+ * up to date as submissions, enrollments and quizzes change, so the dashboard never rescans qresult.
+ * Each change is a handful of in-place UPDATEs / upserts; finalized attempts are applied after the
+ * submit has committed, in their own short transaction (see AttemptReadModels).
+ * A missing snapshot is built from qresult on the first dashboard read.
+ */
+@Service
+public class InstructorStatsService implements AttemptReadModels.Model {
+
+    // Percentage of one attempt; 0 when the quiz has no marks
+    static final String PCT =
+            "CASE WHEN r.total_marks > 0 THEN CAST(r.score_obtained AS double precision) / r.total_marks * 100 ELSE 0 END";
+
+    // Only finalized, graded attempts count; attempts still waiting for the listener are added by it
+    private static final String FINALIZED_FOR_INSTRUCTOR =
+            "FROM qresult r JOIN quiz q ON q.id = r.quiz_id JOIN batches b ON b.id = q.batch_id " +
+            "WHERE b.instructor_profile_id = ? AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "AND " + AttemptReadModels.applied(AttemptReadModels.INSTRUCTOR_STATS);
+
+    // Same definition as AssignmentRepo.countStudentsByInstructor
+    private static final String COUNT_STUDENTS =
+            "(SELECT COUNT(DISTINCT a.student_user_id) FROM instructor_students_assignments a " +
+            "JOIN batches b ON b.id = a.batch_id WHERE b.instructor_profile_id = ?)";
+
+    private static final String COUNT_QUIZZES =
+            "(SELECT COUNT(*) FROM quiz q JOIN batches b ON b.id = q.batch_id WHERE b.instructor_profile_id = ?)";
+
+    private static final String INSERT_STATS =
+            "INSERT INTO instructor_stats (instructor_profile_id, total_students, quiz_count, total_attempts, pct_sum, " +
+            "timed_attempts, duration_seconds_sum, band_excellent, band_good, band_average, band_poor, updated_at) " +
+            "SELECT ?, " + COUNT_STUDENTS + ", " + COUNT_QUIZZES + ", COUNT(r.id), COALESCE(SUM(" + PCT + "), 0), " +
+            "COUNT(r.start_time), COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (r.submit_date - r.start_time)))), 0), 0, 0, 0, 0, ? " +
+            FINALIZED_FOR_INSTRUCTOR + " " +
+            "ON CONFLICT (instructor_profile_id) DO NOTHING";
+
+    private static final String INSERT_STUDENT_STATS =
+            "INSERT INTO instructor_student_stats (instructor_profile_id, student_id, username, attempts, pct_sum, last_submit_at) " +
+            "SELECT b.instructor_profile_id, r.student_id, MAX(s.username), COUNT(*), SUM(" + PCT + "), MAX(r.submit_date) " +
+            "FROM qresult r JOIN customer s ON s.id = r.student_id JOIN quiz q ON q.id = r.quiz_id JOIN batches b ON b.id = q.batch_id " +
+            "WHERE b.instructor_profile_id = ? AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "AND " + AttemptReadModels.applied(AttemptReadModels.INSTRUCTOR_STATS) + " " +
+            "GROUP BY b.instructor_profile_id, r.student_id";
+
+    private static final String INSERT_QUIZ_STATS =
+            "INSERT INTO instructor_quiz_stats (quiz_id, instructor_profile_id, attempts, pct_sum) " +
+            "SELECT r.quiz_id, b.instructor_profile_id, COUNT(*), SUM(" + PCT + ") " +
+            FINALIZED_FOR_INSTRUCTOR + " " +
+            "GROUP BY r.quiz_id, b.instructor_profile_id";
+
+    private static final String ADD_ATTEMPT =
+            "UPDATE instructor_stats SET total_attempts = total_attempts + 1, pct_sum = pct_sum + ?, " +
+            "timed_attempts = timed_attempts + ?, duration_seconds_sum = duration_seconds_sum + ?, updated_at = ? " +
+            "WHERE instructor_profile_id = ?";
+
+    // Returns the student's new totals; the row lock serializes concurrent submits by the same student
+    private static final String UPSERT_STUDENT =
+            "INSERT INTO instructor_student_stats (instructor_profile_id, student_id, username, attempts, pct_sum, last_submit_at) " +
+            "VALUES (?, ?, (SELECT username FROM customer WHERE id = ?), 1, ?, ?) " +
+            "ON CONFLICT (instructor_profile_id, student_id) DO UPDATE SET " +
+            "attempts = instructor_student_stats.attempts + 1, " +
+            "pct_sum = instructor_student_stats.pct_sum + EXCLUDED.pct_sum, " +
+            "last_submit_at = GREATEST(instructor_student_stats.last_submit_at, EXCLUDED.last_submit_at) " +
+            "RETURNING attempts, pct_sum";
+
+    private static final String UPSERT_QUIZ =
+            "INSERT INTO instructor_quiz_stats (quiz_id, instructor_profile_id, attempts, pct_sum) VALUES (?, ?, 1, ?) " +
+            "ON CONFLICT (quiz_id) DO UPDATE SET attempts = instructor_quiz_stats.attempts + 1, " +
+            "pct_sum = instructor_quiz_stats.pct_sum + EXCLUDED.pct_sum";
+
+    // Today's row for one instructor ("= ?") or all of them ("IS NOT NULL"); only read back a week later,
+    // so it is written when a snapshot is built and refreshed hourly, never per submission
+    private static final String UPSERT_DAILY =
+            "INSERT INTO instructor_daily_snapshot (instructor_profile_id, snapshot_date, total_students, active_students, total_attempts, pct_sum) " +
+            "SELECT s.instructor_profile_id, ?, s.total_students, COALESCE(a.active, 0), s.total_attempts, s.pct_sum " +
+            "FROM instructor_stats s LEFT JOIN (SELECT st.instructor_profile_id, COUNT(*) AS active FROM instructor_student_stats st " +
+            "WHERE st.last_submit_at > ? GROUP BY st.instructor_profile_id) a ON a.instructor_profile_id = s.instructor_profile_id " +
+            "WHERE s.instructor_profile_id ";
+
+    private static final String ON_CONFLICT_DAILY =
+            " ON CONFLICT (instructor_profile_id, snapshot_date) DO UPDATE SET total_students = EXCLUDED.total_students, " +
+            "active_students = EXCLUDED.active_students, total_attempts = EXCLUDED.total_attempts, pct_sum = EXCLUDED.pct_sum";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private InstructorStatsRepo instructorStatsRepo;
+    @Autowired
+    private InstructorStudentStatsRepo studentStatsRepo;
+    @Autowired
+    private ActivitySeriesService activitySeriesService;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+
+    // "Active" on the dashboard means submitted within this window
+    public static final int ACTIVE_DAYS = 7;
+
+    // --- Read side ---
+
+    public Optional<Long> findProfileId(String username) {
+        return instructorStatsRepo.findProfileIdByUsername(username);
+    }
+
+    // The snapshot row, built from qresult the first time it is asked for
+    @Transactional
+    public InstructorStats getStats(Long profileId) {
+        return instructorStatsRepo.findById(profileId).orElseGet(() -> {
+            rebuild(profileId);
+            return instructorStatsRepo.findById(profileId).orElseThrow();
+        });
+    }
+
+    private void rebuild(Long profileId) {
+        // Waits for attempts being applied right now; the ones still pending are left to their listener
+        attemptReadModels.lock(AttemptReadModels.INSTRUCTOR_STATS, profileId);
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Totals; a concurrent rebuild that got there first wins
+        if (jdbcTemplate.update(INSERT_STATS, profileId, profileId, profileId, Timestamp.valueOf(now), profileId) == 0) {
+            return;
+        }
+
+        // 2. Per-student and per-quiz rows
+        jdbcTemplate.update("DELETE FROM instructor_student_stats WHERE instructor_profile_id = ?", profileId);
+        jdbcTemplate.update("DELETE FROM instructor_quiz_stats WHERE instructor_profile_id = ?", profileId);
+        jdbcTemplate.update(INSERT_STUDENT_STATS, profileId);
+        jdbcTemplate.update(INSERT_QUIZ_STATS, profileId);
+        activitySeriesService.backfill(profileId);
+
+        // 3. Bands from the per-student averages
+        long[] bands = new long[Band.values().length];
+        for (InstructorStudentStats row : studentStatsRepo.findByInstructorProfileId(profileId)) {
+            bands[Band.of(row.getAttempts(), row.getPctSum()).ordinal()]++;
+        }
+        jdbcTemplate.update("UPDATE instructor_stats SET band_excellent = ?, band_good = ?, band_average = ?, band_poor = ? " +
+                        "WHERE instructor_profile_id = ?",
+                bands[Band.EXCELLENT.ordinal()], bands[Band.GOOD.ordinal()],
+                bands[Band.AVERAGE.ordinal()], bands[Band.POOR.ordinal()], profileId);
+
+        recordDaily(profileId, now);
+    }
+
+    // --- Write side ---
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.INSTRUCTOR_STATS;
+    }
+
+    // After the submit commits, in a transaction of its own: contention on the instructor's row lasts
+    // only this short transaction, and a failure here never rolls back the student's submission
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        long[] owner = ownerOfQuiz(event.quizId());
+        if (owner == null) {
+            attemptReadModels.claim(event.resultId(), AttemptReadModels.INSTRUCTOR_STATS);
+            return;
+        }
+        Long profileId = owner[0];
+
+        // Serialized with a rebuild of the same snapshot; false when this attempt was applied already
+        attemptReadModels.lock(AttemptReadModels.INSTRUCTOR_STATS, profileId);
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.INSTRUCTOR_STATS)) return;
+
+        double pct = event.totalMarks() != null && event.totalMarks() > 0
+                ? (double) event.scoreObtained() / event.totalMarks() * 100
+                : 0;
+        boolean timed = event.startTime() != null && event.submitDate() != null;
+        long seconds = timed ? Duration.between(event.startTime(), event.submitDate()).toSeconds() : 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Totals; no row yet means the first dashboard read will build it from qresult
+        if (jdbcTemplate.update(ADD_ATTEMPT, pct, timed ? 1 : 0, seconds, Timestamp.valueOf(now), profileId) == 0) {
+            return;
+        }
+
+        // 2. The student's totals, moving them between bands when their average crosses a boundary
+        Timestamp submittedAt = Timestamp.valueOf(event.submitDate() != null ? event.submitDate() : now);
+        double[] totals = jdbcTemplate.queryForObject(UPSERT_STUDENT,
+                (rs, i) -> new double[]{rs.getLong("attempts"), rs.getDouble("pct_sum")},
+                profileId, event.studentId(), event.studentId(), pct, submittedAt);
+        long attempts = (long) totals[0];
+        Band after = Band.of(attempts, totals[1]);
+        Band before = attempts > 1 ? Band.of(attempts - 1, totals[1] - pct) : null;
+        if (before != after) {
+            String set = after.column + " = " + after.column + " + 1";
+            if (before != null) set += ", " + before.column + " = " + before.column + " - 1";
+            jdbcTemplate.update("UPDATE instructor_stats SET " + set + " WHERE instructor_profile_id = ?", profileId);
+        }
+
+        // 3. The quiz's totals and the day's activity bucket
+        jdbcTemplate.update(UPSERT_QUIZ, event.quizId(), profileId, pct);
+        activitySeriesService.record(profileId, owner[1], event.studentId(), submittedAt.toLocalDateTime().toLocalDate(), pct);
+    }
+
+    @EventListener
+    @Transactional
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        refreshCount("total_students", COUNT_STUDENTS, event.instructorProfileId());
+    }
+
+    @EventListener
+    @Transactional
+    public void onQuizChanged(QuizChangedEvent event) {
+        refreshCount("quiz_count", COUNT_QUIZZES, event.instructorProfileId());
+    }
+
+    private void refreshCount(String column, String countQuery, Long profileId) {
+        if (profileId == null) return;
+
+        // The change itself may still sit in the persistence context
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE instructor_stats SET " + column + " = " + countQuery + ", updated_at = ? " +
+                "WHERE instructor_profile_id = ?", profileId, Timestamp.valueOf(now), profileId);
+    }
+
+    // One set-based statement for every instructor with a snapshot
+    @Scheduled(cron = "${instructor.stats.daily-snapshot-cron:0 5 * * * *}")
+    public void recordDailySnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(UPSERT_DAILY + "IS NOT NULL" + ON_CONFLICT_DAILY, Date.valueOf(now.toLocalDate()),
+                Timestamp.valueOf(now.minusDays(ACTIVE_DAYS)));
+    }
+
+    private void recordDaily(Long profileId, LocalDateTime now) {
+        jdbcTemplate.update(UPSERT_DAILY + "= ?" + ON_CONFLICT_DAILY, Date.valueOf(now.toLocalDate()),
+                Timestamp.valueOf(now.minusDays(ACTIVE_DAYS)), profileId);
+    }
+
+    // {instructor profile id, batch id}, or null for a quiz outside any batch
+    private long[] ownerOfQuiz(Long quizId) {
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT b.instructor_profile_id, b.id FROM quiz q JOIN batches b ON b.id = q.batch_id WHERE q.id = ?",
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, quizId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Bands use the rounded average, exactly as the distribution chart shows it
+    enum Band {
+        EXCELLENT("band_excellent"), GOOD("band_good"), AVERAGE("band_average"), POOR("band_poor");
+
+        final String column;
+
+        Band(String column) {
+            this.column = column;
+        }
+
+        static Band of(long attempts, double pctSum) {
+            double avg = Math.round(pctSum / attempts * 10.0) / 10.0;
+            if (avg >= 90) return EXCELLENT;
+            if (avg >= 75) return GOOD;
+            if (avg >= 60) return AVERAGE;
+            return POOR;
+        }
+    }
+}
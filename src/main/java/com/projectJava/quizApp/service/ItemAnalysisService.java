@@ -0,0 +1,287 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.ItemAnalysisDto;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.model.*;
+import com.projectJava.quizApp.repo.*;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Question-level item analysis (difficulty, discrimination, option picks) per quiz.
+ * The counts are upserted from the attempt's submitted_answers each time an attempt is finalized,
+ * so a report reads O(questions) rows. They are built from qresult on the first read and rebuilt
+ * when the answer key they were graded against has changed.
+ */
+@Service
+public class ItemAnalysisService implements AttemptReadModels.Model {
+
+    // Indexes over fewer attempts are shown, but not flagged
+    public static final int MIN_ATTEMPTS_FOR_FLAGS = 10;
+
+    // Attempts whose listener is still due are added by it (see AttemptReadModels)
+    private static final String FINALIZED =
+            "r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false AND " +
+            AttemptReadModels.applied(AttemptReadModels.ITEM_ANALYSIS);
+
+    // Non-blank answers to questions of the attempt's own quiz
+    private static final String FROM_ANSWERS =
+            "FROM submitted_answers sa JOIN qresult r ON r.id = sa.result_id " +
+            "JOIN question qu ON qu.id = sa.question_id AND qu.quiz_id = r.quiz_id " +
+            "WHERE NULLIF(TRIM(sa.selected_response), '') IS NOT NULL AND " + FINALIZED + " ";
+
+    // Same comparison as AnswerKey.Item.isCorrect
+    private static final String CORRECT = "LOWER(TRIM(sa.selected_response)) = LOWER(TRIM(qu.right_answer))";
+
+    private static final String OPTION_INDEX =
+            "CASE LOWER(TRIM(sa.selected_response)) WHEN LOWER(TRIM(qu.option1)) THEN 1 WHEN LOWER(TRIM(qu.option2)) THEN 2 " +
+            "WHEN LOWER(TRIM(qu.option3)) THEN 3 WHEN LOWER(TRIM(qu.option4)) THEN 4 ELSE 0 END";
+
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO quiz_item_summary (quiz_id, attempts, pct_sum, pct_sq_sum, question_set_hash, updated_at) " +
+            "SELECT ?, COUNT(*), COALESCE(SUM(p.pct), 0), COALESCE(SUM(p.pct * p.pct), 0), ?, ? " +
+            "FROM (SELECT " + InstructorStatsService.PCT + " AS pct FROM qresult r WHERE r.quiz_id = ? AND " + FINALIZED + ") p " +
+            "ON CONFLICT (quiz_id) DO NOTHING";
+
+    private static final String ADD_ATTEMPT =
+            "UPDATE quiz_item_summary SET attempts = attempts + 1, pct_sum = pct_sum + ?, pct_sq_sum = pct_sq_sum + ?, updated_at = ? " +
+            "WHERE quiz_id = ?";
+
+    // Scoped by "r.quiz_id = ?" (build) or "r.id = ?" (one attempt)
+    private static final String INSERT_ITEMS =
+            "INSERT INTO quiz_item_stats (quiz_id, question_id, answered, correct, correct_pct_sum) " +
+            "SELECT r.quiz_id, sa.question_id, COUNT(*), COUNT(*) FILTER (WHERE " + CORRECT + "), " +
+            "COALESCE(SUM(" + InstructorStatsService.PCT + ") FILTER (WHERE " + CORRECT + "), 0) " + FROM_ANSWERS;
+
+    // Rows are written in question order, so concurrent upserts of one quiz take their row locks in the same order
+    private static final String ON_CONFLICT_ADD_ITEMS =
+            " GROUP BY r.quiz_id, sa.question_id ORDER BY sa.question_id ON CONFLICT (quiz_id, question_id) DO UPDATE SET " +
+            "answered = quiz_item_stats.answered + EXCLUDED.answered, correct = quiz_item_stats.correct + EXCLUDED.correct, " +
+            "correct_pct_sum = quiz_item_stats.correct_pct_sum + EXCLUDED.correct_pct_sum";
+
+    private static final String INSERT_OPTIONS =
+            "INSERT INTO quiz_item_option_stats (quiz_id, question_id, option_index, picks) " +
+            "SELECT r.quiz_id, sa.question_id, " + OPTION_INDEX + ", COUNT(*) " + FROM_ANSWERS;
+
+    private static final String ON_CONFLICT_ADD_OPTIONS =
+            " GROUP BY 1, 2, 3 ORDER BY 2, 3 ON CONFLICT (quiz_id, question_id, option_index) DO UPDATE SET " +
+            "picks = quiz_item_option_stats.picks + EXCLUDED.picks";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private QuizRepo quizRepo;
+    @Autowired
+    private QuestionRepo questionRepo;
+    @Autowired
+    private QuizItemSummaryRepo summaryRepo;
+    @Autowired
+    private QuizItemStatsRepo itemStatsRepo;
+    @Autowired
+    private QuizItemOptionStatsRepo optionStatsRepo;
+
+    // --- Read side ---
+
+    @Transactional
+    public ItemAnalysisDto getItemAnalysis(Long quizId, String instructorUsername) {
+        // 1. Validate Quiz & Ownership
+        Quiz quiz = quizRepo.findById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        if (quiz.getBatch() == null
+                || !quiz.getBatch().getInstructor().getCustomer().getUsername().equals(instructorUsername)) {
+            throw new RuntimeException("Unauthorized: You do not own this quiz");
+        }
+
+        // 2. Counts, (re)built when missing or graded against another answer key
+        List<Question> questions = new ArrayList<>(questionRepo.findByQuizId(quizId));
+        questions.sort(Comparator.comparing(Question::getId));
+        long hash = questionSetHash(questions);
+
+        QuizItemSummary summary = summaryRepo.findById(quizId).orElse(null);
+        if (summary == null || summary.getQuestionSetHash() != hash) {
+            if (summary != null) entityManager.detach(summary);
+            rebuild(quizId, hash);
+            summary = summaryRepo.findById(quizId).orElseThrow();
+        }
+
+        Map<Long, QuizItemStats> items = new HashMap<>();
+        for (QuizItemStats row : itemStatsRepo.findByQuizId(quizId)) items.put(row.getQuestionId(), row);
+        Map<Long, long[]> picks = new HashMap<>();
+        for (QuizItemOptionStats row : optionStatsRepo.findByQuizId(quizId)) {
+            picks.computeIfAbsent(row.getQuestionId(), id -> new long[5])[row.getOptionIndex()] = row.getPicks();
+        }
+
+        // 3. Indexes
+        long n = summary.getAttempts();
+        double mean = n > 0 ? summary.getPctSum() / n : 0;
+        double sd = n > 0 ? Math.sqrt(Math.max(0, summary.getPctSqSum() / n - mean * mean)) : 0;
+
+        ItemAnalysisDto response = new ItemAnalysisDto();
+        response.setQuizId(quizId);
+        response.setQuizTitle(quiz.getTitle());
+        response.setAttempts(n);
+        response.setAveragePercentage(Math.round(mean * 10.0) / 10.0);
+
+        for (Question question : questions) {
+            QuizItemStats stats = items.get(question.getId());
+            long answered = stats != null ? stats.getAnswered() : 0;
+            long correct = stats != null ? stats.getCorrect() : 0;
+            long[] optionPicks = picks.getOrDefault(question.getId(), new long[5]);
+
+            ItemAnalysisDto.ItemDto item = new ItemAnalysisDto.ItemDto();
+            item.setQuestionId(question.getId());
+            item.setQuestionTitle(question.getQuestionTitle());
+            item.setRightAnswer(question.getRightAnswer());
+            item.setAnswered(answered);
+            item.setCorrect(correct);
+            item.setSkipped(Math.max(0, n - answered));
+            item.setOtherAnswers(optionPicks[0]);
+
+            Double difficulty = n > 0 ? round3((double) correct / n) : null;
+            Double discrimination = stats != null ? pointBiserial(n, mean, sd, correct, stats.getCorrectPctSum()) : null;
+            item.setDifficulty(difficulty);
+            item.setDiscrimination(discrimination);
+
+            String[] texts = {null, question.getOption1(), question.getOption2(), question.getOption3(), question.getOption4()};
+            long correctPicks = 0;
+            long topDistractorPicks = 0;
+            for (int i = 1; i <= 4; i++) {
+                if (texts[i] == null || texts[i].isBlank()) continue;
+                boolean isRight = isSameAnswer(texts[i], question.getRightAnswer());
+
+                ItemAnalysisDto.OptionDto option = new ItemAnalysisDto.OptionDto();
+                option.setIndex(i);
+                option.setText(texts[i]);
+                option.setCorrect(isRight);
+                option.setPicks(optionPicks[i]);
+                option.setShare(n > 0 ? round3((double) optionPicks[i] / n) : null);
+                item.getOptions().add(option);
+
+                if (isRight) correctPicks = Math.max(correctPicks, optionPicks[i]);
+                else topDistractorPicks = Math.max(topDistractorPicks, optionPicks[i]);
+            }
+
+            // 4. Flags
+            item.getFlags().addAll(flags(n, difficulty, discrimination, correctPicks, topDistractorPicks));
+
+            response.getItems().add(item);
+        }
+
+        return response;
+    }
+
+    private void rebuild(Long quizId, long hash) {
+        // Waits for attempts being applied right now; the ones still pending are left to their listener
+        attemptReadModels.lock(AttemptReadModels.ITEM_ANALYSIS, quizId);
+        jdbcTemplate.update("DELETE FROM quiz_item_option_stats WHERE quiz_id = ?", quizId);
+        jdbcTemplate.update("DELETE FROM quiz_item_stats WHERE quiz_id = ?", quizId);
+        jdbcTemplate.update("DELETE FROM quiz_item_summary WHERE quiz_id = ?", quizId);
+
+        // A concurrent rebuild that got there first wins
+        if (jdbcTemplate.update(INSERT_SUMMARY, quizId, hash, Timestamp.valueOf(LocalDateTime.now()), quizId) == 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_ITEMS + "AND r.quiz_id = ? GROUP BY r.quiz_id, sa.question_id", quizId);
+        jdbcTemplate.update(INSERT_OPTIONS + "AND r.quiz_id = ? GROUP BY 1, 2, 3", quizId);
+    }
+
+    // --- Write side (after the submit has committed, in its own transaction; see AttemptReadModels) ---
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.ITEM_ANALYSIS;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        // Serialized with a rebuild of the quiz's counts; false when this attempt was applied already
+        attemptReadModels.lock(AttemptReadModels.ITEM_ANALYSIS, event.quizId());
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.ITEM_ANALYSIS)) return;
+
+        double pct = event.totalMarks() != null && event.totalMarks() > 0
+                ? (double) event.scoreObtained() / event.totalMarks() * 100
+                : 0;
+
+        // 1. Score moments; no row yet means the first report will build everything from qresult
+        if (jdbcTemplate.update(ADD_ATTEMPT, pct, pct * pct, Timestamp.valueOf(LocalDateTime.now()), event.quizId()) == 0) {
+            return;
+        }
+
+        // 2. This attempt's answers (committed together with the attempt)
+        jdbcTemplate.update(INSERT_ITEMS + "AND r.id = ?" + ON_CONFLICT_ADD_ITEMS, event.resultId());
+        jdbcTemplate.update(INSERT_OPTIONS + "AND r.id = ?" + ON_CONFLICT_ADD_OPTIONS, event.resultId());
+    }
+
+    @EventListener
+    @Transactional
+    public void onQuizChanged(QuizChangedEvent event) {
+        entityManager.flush();
+
+        // Drop the counts of deleted quizzes (all of a removed batch's when quizId is null)
+        String orphaned = " s WHERE NOT EXISTS (SELECT 1 FROM quiz q WHERE q.id = s.quiz_id)" + (event.quizId() != null ? " AND s.quiz_id = ?" : "");
+        Object[] args = event.quizId() != null ? new Object[]{event.quizId()} : new Object[0];
+        jdbcTemplate.update("DELETE FROM quiz_item_option_stats" + orphaned, args);
+        jdbcTemplate.update("DELETE FROM quiz_item_stats" + orphaned, args);
+        jdbcTemplate.update("DELETE FROM quiz_item_summary" + orphaned, args);
+    }
+
+    // Only once there is enough data to trust the indexes
+    static List<String> flags(long n, Double difficulty, Double discrimination, long correctPicks, long topDistractorPicks) {
+        List<String> flags = new ArrayList<>();
+        if (n < MIN_ATTEMPTS_FOR_FLAGS || difficulty == null) return flags;
+        if (difficulty >= 0.9) flags.add("TOO_EASY");
+        if (difficulty <= 0.3) flags.add("TOO_HARD");
+        if (discrimination != null && discrimination < 0) flags.add("NEGATIVE_DISCRIMINATION");
+        else if (discrimination != null && discrimination < 0.2) flags.add("LOW_DISCRIMINATION");
+        if (topDistractorPicks > correctPicks) flags.add("MISLEADING_OPTION");
+        return flags;
+    }
+
+    // r_pb = (M1 - M) / S * sqrt(p / q), with M1 the mean score of the students who got the item right
+    static Double pointBiserial(long n, double mean, double sd, long correct, double correctPctSum) {
+        if (n == 0 || correct == 0 || correct == n || sd == 0) return null;
+        double p = (double) correct / n;
+        double meanCorrect = correctPctSum / correct;
+        return round3((meanCorrect - mean) / sd * Math.sqrt(p / (1 - p)));
+    }
+
+    // Changes whenever a question is added, removed, re-keyed or has its options edited
+    private long questionSetHash(List<Question> questions) {
+        long hash = 1;
+        for (Question q : questions) {
+            hash = 31 * hash + Objects.hash(q.getId(), key(q.getRightAnswer()),
+                    key(q.getOption1()), key(q.getOption2()), key(q.getOption3()), key(q.getOption4()));
+        }
+        return hash;
+    }
+
+    private static boolean isSameAnswer(String a, String b) {
+        return a != null && b != null && a.trim().equalsIgnoreCase(b.trim());
+    }
+
+    private static String key(String text) {
+        return text == null ? null : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double round3(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -1,27 +1,317 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.LeaderboardDto;
-import com.projectJava.quizApp.model.QResult;
-import com.projectJava.quizApp.repo.QResultRepo;
+import com.projectJava.quizApp.DTO.LeaderboardPositionDto;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.utility.OrderStatisticTree;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
-import java.util.List;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Public-quiz leaderboard of individual users (role USER), held in memory as an order-statistic
+ * tree: top-N pages and "my rank" are O(log n) and no request scans qresult. Seeded with one
+ * grouped query at startup (and nightly, to correct any drift), updated after each committed
+ * submission, and checkpointed periodically so a restart can serve the board right away.
+ * Submissions arriving during a seed are replayed onto it only if its snapshot did not include them.
+ */
 @Service
 public class LeaderboardService {
 
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_NEIGHBORS = 25;
+
+    private static final String SEED =
+            "SELECT c.id, c.username, c.country, COALESCE(SUM(r.score_obtained), 0) AS score " +
+            "FROM qresult r JOIN customer c ON c.id = r.student_id JOIN quiz q ON q.id = r.quiz_id " +
+            "WHERE c.role = 'USER' AND q.batch_id IS NULL " +
+            "AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "GROUP BY c.id, c.username, c.country";
+
+    // Which of the given attempts a seed already counted (same condition as SEED, same snapshot)
+    private static final String COUNTED =
+            "SELECT r.id FROM qresult r WHERE r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false AND r.id IN ";
+
+    // Empty unless the attempt counts: a USER finishing a public quiz
+    private static final String PLAYER =
+            "SELECT c.username, c.country FROM customer c JOIN quiz q ON q.id = ? " +
+            "WHERE c.id = ? AND c.role = 'USER' AND q.batch_id IS NULL";
+
+    private static final String UPSERT_CHECKPOINT =
+            "INSERT INTO leaderboard_checkpoint (user_id, username, country, score, updated_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET username = EXCLUDED.username, country = EXCLUDED.country, " +
+            "score = EXCLUDED.score, updated_at = EXCLUDED.updated_at";
+
+    // Highest score first; ties by user id so every player has one fixed position
+    private static final Comparator<Standing> ORDER =
+            Comparator.comparingLong(Standing::score).reversed().thenComparingLong(Standing::userId);
 
     @Autowired
-    private QResultRepo qResultRepo;
-    public List<LeaderboardDto> getLeaderboardData() {
-        List<LeaderboardDto> leaderboard = qResultRepo.findTopRankedScores();
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Board board = new Board();
+
+    // Users changed since the last checkpoint
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Non-null while a reseed runs: submissions seen meanwhile, replayed onto the new board unless the seed counted them
+    private List<Delta> pendingDuringSeed;
+
+    // Seed and replay check read one snapshot
+    private TransactionTemplate seedTransaction;
+
+    record Standing(long userId, String username, String country, long score) {
+    }
+
+    private record Delta(long resultId, long userId, String username, String country, long points) {
+    }
+
+    private static final class Board {
+        final Map<Long, Standing> byUser = new HashMap<>();
+        final OrderStatisticTree<Standing> ranked = new OrderStatisticTree<>(ORDER);
+
+        void add(long userId, String username, String country, long points) {
+            Standing old = byUser.get(userId);
+            if (old != null) ranked.remove(old);
+            Standing updated = new Standing(userId, username, country, (old != null ? old.score() : 0) + points);
+            byUser.put(userId, updated);
+            ranked.add(updated);
+        }
+    }
+
+    // --- Read side ---
+
+    public List<LeaderboardDto> getLeaderboardData(int page, int size) {
+        if (page < 0) throw new RuntimeException("page must not be negative");
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new RuntimeException("size must be between 1 and " + MAX_PAGE_SIZE);
+
+        lock.readLock().lock();
+        try {
+            long from = (long) page * size;
+            if (from >= board.ranked.size()) return new ArrayList<>();
+            return toDtos(board.ranked.range((int) from, size), (int) from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LeaderboardPositionDto getPosition(Long userId, int neighbors) {
+        if (neighbors < 0 || neighbors > MAX_NEIGHBORS) throw new RuntimeException("neighbors must be between 0 and " + MAX_NEIGHBORS);
+
+        lock.readLock().lock();
+        try {
+            Standing mine = board.byUser.get(userId);
+            if (mine == null) {
+                return LeaderboardPositionDto.builder().neighbors(List.of()).totalPlayers(board.ranked.size()).build();
+            }
+            int index = board.ranked.indexOf(mine);
+            int from = Math.max(0, index - neighbors);
+            List<LeaderboardDto> around = toDtos(board.ranked.range(from, index - from + neighbors + 1), from);
+            return LeaderboardPositionDto.builder()
+                    .me(around.get(index - from))
+                    .neighbors(around)
+                    .totalPlayers(board.ranked.size())
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaderboardDto> toDtos(List<Standing> standings, int firstIndex) {
+        List<LeaderboardDto> out = new ArrayList<>();
+        for (int i = 0; i < standings.size(); i++) {
+            Standing s = standings.get(i);
+            LeaderboardDto dto = new LeaderboardDto(s.username(), s.score(), s.country());
+            dto.setId(s.userId());
+            dto.setRank(firstIndex + i + 1);
+            out.add(dto);
+        }
+        return out;
+    }
+
+    // --- Write side ---
+
+    // After commit, so a rolled back submission never counts; the sweeper publishes outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        List<Delta> player = jdbcTemplate.query(PLAYER,
+                (rs, i) -> new Delta(event.resultId(), event.studentId(), rs.getString("username"), rs.getString("country"),
+                        event.scoreObtained()),
+                event.quizId(), event.studentId());
+        if (player.isEmpty()) return;
+        Delta delta = player.get(0);
+
+        lock.writeLock().lock();
+        try {
+            board.add(delta.userId(), delta.username(), delta.country(), delta.points());
+            if (pendingDuringSeed != null) pendingDuringSeed.add(delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dirty.add(delta.userId());
+    }
+
+    // --- Seeding & checkpoints ---
+
+    @PostConstruct
+    void initSeedTransaction() {
+        seedTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        seedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        seedTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int loaded = 0;
+        try {
+            loaded = loadCheckpoint();
+        } catch (Exception e) {
+            log.warn("Could not load leaderboard checkpoint: {}", e.getMessage());
+        }
+        // With a checkpoint the board is already usable; seed in the background
+        if (loaded > 0) {
+            Thread.ofVirtual().name("leaderboard-seed").start(this::reseed);
+        } else {
+            reseed();
+        }
+    }
+
+    private int loadCheckpoint() {
+        Board loaded = new Board();
+        jdbcTemplate.query("SELECT user_id, username, country, score FROM leaderboard_checkpoint",
+                (RowCallbackHandler) rs -> loaded.add(rs.getLong("user_id"), rs.getString("username"),
+                        rs.getString("country"), rs.getLong("score")));
+
+        lock.writeLock().lock();
+        try {
+            board = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} leaderboard standings from the checkpoint", loaded.ranked.size());
+        return loaded.ranked.size();
+    }
+
+    // Full rebuild from qresult: one grouped query, then an atomic swap
+    @Scheduled(cron = "${leaderboard.reseed-cron:0 30 3 * * *}")
+    public void reseed() {
+        try {
+            lock.writeLock().lock();
+            try {
+                if (pendingDuringSeed != null) return; // already running
+                pendingDuringSeed = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Board seeded = new Board();
+            seedTransaction.executeWithoutResult(status -> {
+                // 1. The board as of this transaction's snapshot
+                jdbcTemplate.query(SEED, (RowCallbackHandler) rs -> seeded.add(rs.getLong("id"), rs.getString("username"),
+                        rs.getString("country"), rs.getLong("score")));
 
-        for (int i = 0; i < leaderboard.size(); i++) {
-            leaderboard.get(i).setRank(i + 1);
+                // 2. Swap it in with the submissions that committed after the snapshot; the ones before it are in the seed
+                lock.writeLock().lock();
+                try {
+                    Set<Long> counted = countedBySeed(pendingDuringSeed);
+                    for (Delta d : pendingDuringSeed) {
+                        if (!counted.contains(d.resultId())) seeded.add(d.userId(), d.username(), d.country(), d.points());
+                    }
+                    board = seeded;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            log.info("Leaderboard seeded with {} players", seeded.ranked.size());
+            replaceCheckpoint();
+        } catch (Exception e) {
+            log.warn("Could not seed the leaderboard: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingDuringSeed = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
         }
+    }
+
+    private Set<Long> countedBySeed(List<Delta> deltas) {
+        if (deltas.isEmpty()) return Set.of();
+        List<Object> ids = deltas.stream().<Object>map(Delta::resultId).distinct().toList();
+        String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(COUNTED + in, Long.class, ids.toArray()));
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.checkpoint-interval-ms:300000}")
+    public void checkpoint() {
+        if (dirty.isEmpty()) return;
+        List<Long> userIds = new ArrayList<>(dirty);
+        dirty.removeAll(userIds);
+
+        List<Standing> changed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : userIds) {
+                Standing s = board.byUser.get(id);
+                if (s != null) changed.add(s);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            writeCheckpoint(changed);
+        } catch (Exception e) {
+            dirty.addAll(userIds); // retried next time
+            log.warn("Could not checkpoint the leaderboard: {}", e.getMessage());
+        }
+    }
+
+    private void replaceCheckpoint() {
+        dirty.clear(); // everything is written below; later changes mark themselves again
+        List<Standing> all;
+        lock.readLock().lock();
+        try {
+            all = new ArrayList<>(board.byUser.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM leaderboard_checkpoint");
+            writeCheckpoint(all);
+        });
+    }
 
-        return leaderboard;
+    private void writeCheckpoint(List<Standing> standings) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_CHECKPOINT, standings, 500, (ps, s) -> {
+            ps.setLong(1, s.userId());
+            ps.setString(2, s.username());
+            ps.setString(3, s.country());
+            ps.setLong(4, s.score());
+            ps.setTimestamp(5, now);
+        });
     }
 }
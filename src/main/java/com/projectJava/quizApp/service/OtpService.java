@@ -30,6 +30,8 @@ public class OtpService {
     private EmailService emailService;
     @Autowired
     private UserRepo userRepo;
+    @Autowired
+    private UserSecurityStateCache userSecurityStateCache;
 
     @Value("${otp.max.attempts}")
     private int maxAttempts;
@@ -168,6 +170,7 @@ public class OtpService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setPasswordChangedAt(java.time.Instant.now());
         userRepo.save(user);
+        userSecurityStateCache.evict(user.getUsername());
 
         // mark this token used and remove other password-reset tokens for this email
         token.setUsed(true);
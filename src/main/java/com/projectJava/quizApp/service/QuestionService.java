@@ -17,6 +17,12 @@ public class QuestionService {
     @Autowired
     private QuizRepo quizRepo; // You need this now
 
+    @Autowired
+    private AnswerKeyService answerKeyService;
+
+    @Autowired
+    private ExamPaperService examPaperService;
+
     // CHANGED: We now need the quizId to know where to put the question
     public void addQuestion(Long quizId, Question question) {
         Quiz quiz = quizRepo.findById(quizId)
@@ -26,6 +32,8 @@ public class QuestionService {
         question.setQuiz(quiz);
 
         questionRepo.save(question);
+        answerKeyService.invalidate(quizId);
+        examPaperService.evict(quizId);
     }
 
     // CHANGED: Get questions by Quiz ID (not all questions)
@@ -52,10 +60,20 @@ public class QuestionService {
 
         // 3. Save the existing entity
         questionRepo.save(existingQuestion);
+        if (existingQuestion.getQuiz() != null) {
+            answerKeyService.invalidate(existingQuestion.getQuiz().getId());
+            examPaperService.evict(existingQuestion.getQuiz().getId());
+        }
     }
 
     public void deleteQuestion(Long id) {
-        questionRepo.deleteById(id);
+        questionRepo.findById(id).ifPresent(q -> {
+            questionRepo.delete(q);
+            if (q.getQuiz() != null) {
+                answerKeyService.invalidate(q.getQuiz().getId());
+                examPaperService.evict(q.getQuiz().getId());
+            }
+        });
     }
 
     public Question getQuestionById(Long id) {
@@ -2,10 +2,12 @@ package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.OpenTdbResponse;
 import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.event.QuizChangedEvent;
 import com.projectJava.quizApp.model.*;
 import com.projectJava.quizApp.repo.*;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.HtmlUtils; // To unescape HTML entities
@@ -22,6 +24,7 @@ public class QuizGeneratorService {
     @Autowired private QuestionRepo questionRepo;
     @Autowired private QuizRepo quizRepo;
     @Autowired private BatchRepo batchRepo; // Optional: If you need a dummy batch for users
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     private final String API_URL = "https://opentdb.com/api.php?amount=10&type=multiple";
 
@@ -100,6 +103,7 @@ public class QuizGeneratorService {
         }
 
         questionRepo.saveAll(savedQuestions);
+        eventPublisher.publishEvent(new QuizChangedEvent(null, quiz.getId()));
 
         return quiz.getId(); // Return ID so frontend can navigate to /quiz/attempt/{id}
     }
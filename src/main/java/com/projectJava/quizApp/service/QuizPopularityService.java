@@ -0,0 +1,175 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.model.QuizRating;
+import com.projectJava.quizApp.repo.QResultRepo;
+import com.projectJava.quizApp.repo.QuizRatingRepo;
+import com.projectJava.quizApp.repo.QuizRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Maintains quiz_popularity, the explore page's per-quiz counters: the all-time attempt count
+ * (one UPDATE per finalized attempt), the star rating totals and a trending score. The score is
+ * the sum of exp(-age / tau) over recent finalized attempts; each attempt adds 1 when it lands and
+ * a scheduled job recomputes the decayed sum, so trending listings are an index walk on the score.
+ */
+@Service
+public class QuizPopularityService implements AttemptReadModels.Model {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizPopularityService.class);
+
+    private static final String FINALIZED = "r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false";
+
+    private static final String ADD_ATTEMPT =
+            "INSERT INTO quiz_popularity (quiz_id, attempt_count, trending_score, rating_sum, rating_count, updated_at) " +
+            "VALUES (?, 1, 1, 0, 0, ?) ON CONFLICT (quiz_id) DO UPDATE SET " +
+            "attempt_count = quiz_popularity.attempt_count + 1, trending_score = quiz_popularity.trending_score + 1, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    // Rows for quizzes that have none yet, counted from qresult (attempts whose listener is still due are left to it)
+    private static final String INSERT_MISSING =
+            "INSERT INTO quiz_popularity (quiz_id, attempt_count, trending_score, rating_sum, rating_count, updated_at) " +
+            "SELECT q.id, (SELECT COUNT(*) FROM qresult r WHERE r.quiz_id = q.id AND " + FINALIZED + " AND " +
+            AttemptReadModels.applied(AttemptReadModels.POPULARITY) + "), 0, 0, 0, ? " +
+            "FROM quiz q WHERE NOT EXISTS (SELECT 1 FROM quiz_popularity p WHERE p.quiz_id = q.id) ";
+
+    // A listener may insert the row first; its attempt is then the only one it adds
+    private static final String ON_CONFLICT_KEEP = " ON CONFLICT (quiz_id) DO NOTHING";
+
+    private static final String DELETE_ORPHANS =
+            "DELETE FROM quiz_popularity p WHERE NOT EXISTS (SELECT 1 FROM quiz q WHERE q.id = p.quiz_id)";
+
+    // Attempts older than the window contribute less than 2^-(window/half-life) each and are dropped
+    private static final String REFRESH_TRENDING =
+            "UPDATE quiz_popularity p SET trending_score = COALESCE(t.score, 0), updated_at = ? " +
+            "FROM (SELECT p2.quiz_id, s.score FROM quiz_popularity p2 LEFT JOIN (" +
+            "SELECT r.quiz_id, SUM(EXP(-EXTRACT(EPOCH FROM (CAST(? AS timestamp) - r.submit_date)) / ?)) AS score " +
+            "FROM qresult r WHERE " + FINALIZED + " AND r.submit_date >= ? GROUP BY r.quiz_id) s ON s.quiz_id = p2.quiz_id " +
+            "WHERE p2.trending_score > 0 OR s.score IS NOT NULL) t " +
+            "WHERE p.quiz_id = t.quiz_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private QuizRepo quizRepo;
+    @Autowired
+    private QResultRepo qResultRepo;
+    @Autowired
+    private QuizRatingRepo quizRatingRepo;
+
+    @Value("${explore.trending.half-life-hours:72}")
+    private double halfLifeHours;
+
+    @Value("${explore.trending.window-days:14}")
+    private int windowDays;
+
+    // First start after the table was added: counters for every quiz, then the current scores
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM quiz_popularity LIMIT 1) t", Integer.class);
+            if (existing != null && existing == 0) {
+                int rows = jdbcTemplate.update(INSERT_MISSING + ON_CONFLICT_KEEP, Timestamp.valueOf(LocalDateTime.now()));
+                log.info("Backfilled {} quiz popularity rows", rows);
+                refreshTrending();
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill quiz popularity: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${explore.trending.refresh-interval-ms:600000}", initialDelayString = "${explore.trending.refresh-interval-ms:600000}")
+    public void refreshTrending() {
+        LocalDateTime now = LocalDateTime.now();
+        double tauSeconds = halfLifeHours * 3600 / Math.log(2);
+        try {
+            // Quizzes created without an event (or before one was published) are picked up here
+            jdbcTemplate.update(INSERT_MISSING + ON_CONFLICT_KEEP, Timestamp.valueOf(now));
+            jdbcTemplate.update(DELETE_ORPHANS);
+            int changed = jdbcTemplate.update(REFRESH_TRENDING, Timestamp.valueOf(now), Timestamp.valueOf(now),
+                    tauSeconds, Timestamp.valueOf(now.minusDays(windowDays)));
+            log.debug("Refreshed trending score of {} quizzes", changed);
+        } catch (Exception e) {
+            log.warn("Could not refresh trending scores: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.POPULARITY;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.POPULARITY)) return;
+
+        jdbcTemplate.update(ADD_ATTEMPT, event.quizId(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @EventListener
+    @Transactional
+    public void onQuizChanged(QuizChangedEvent event) {
+        entityManager.flush();
+
+        if (event.quizId() == null) {
+            jdbcTemplate.update(DELETE_ORPHANS);
+            return;
+        }
+        if (quizRepo.existsById(event.quizId())) {
+            jdbcTemplate.update(INSERT_MISSING + "AND q.id = ?" + ON_CONFLICT_KEEP, Timestamp.valueOf(LocalDateTime.now()), event.quizId());
+        } else {
+            jdbcTemplate.update("DELETE FROM quiz_popularity WHERE quiz_id = ?", event.quizId());
+            jdbcTemplate.update("DELETE FROM quiz_rating WHERE quiz_id = ?", event.quizId());
+        }
+    }
+
+    // Only users who finished the quiz may rate it; rating again replaces the earlier stars
+    @Transactional
+    public void rate(Long quizId, Long userId, int stars) {
+        if (stars < 1 || stars > 5) throw new RuntimeException("Rating must be between 1 and 5 stars");
+        if (!quizRepo.existsById(quizId)) throw new RuntimeException("Quiz not found");
+        if (!qResultRepo.existsFinalizedAttempt(userId, quizId)) {
+            throw new RuntimeException("You can only rate a quiz you have completed");
+        }
+
+        QuizRating rating = quizRatingRepo.findById(new QuizRating.Key(quizId, userId)).orElse(null);
+        int previous = rating != null ? rating.getStars() : 0;
+        if (rating == null) {
+            rating = new QuizRating();
+            rating.setQuizId(quizId);
+            rating.setUserId(userId);
+        }
+        rating.setStars(stars);
+        rating.setRatedAt(LocalDateTime.now());
+        quizRatingRepo.save(rating);
+
+        jdbcTemplate.update("INSERT INTO quiz_popularity (quiz_id, attempt_count, trending_score, rating_sum, rating_count, updated_at) " +
+                        "VALUES (?, 0, 0, ?, ?, ?) ON CONFLICT (quiz_id) DO UPDATE SET " +
+                        "rating_sum = quiz_popularity.rating_sum + EXCLUDED.rating_sum, " +
+                        "rating_count = quiz_popularity.rating_count + EXCLUDED.rating_count, updated_at = EXCLUDED.updated_at",
+                quizId, stars - previous, previous == 0 ? 1 : 0, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
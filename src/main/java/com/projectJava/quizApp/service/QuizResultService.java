@@ -66,6 +66,9 @@ public class QuizResultService {
     }
 
     private QuizResultDto mapToSummaryDTO(QResult result) {
+        // Not graded yet: no score to summarize
+        if (isPending(result)) return mapToPendingDTO(result);
+
         QuizResultDto dto = new QuizResultDto();
         dto.setId(result.getId());
         dto.setTopic(result.getQuiz().getSubject());
@@ -88,7 +91,26 @@ public class QuizResultService {
         return dto;
     }
 
+    // Submitted through the async queue and not graded yet
+    private boolean isPending(QResult result) {
+        return Boolean.TRUE.equals(result.getGradingPending());
+    }
+
+    private QuizResultDto mapToPendingDTO(QResult result) {
+        QuizResultDto dto = new QuizResultDto();
+        dto.setId(result.getId());
+        dto.setTopic(result.getQuiz().getSubject());
+        dto.setQuizId(result.getQuiz().getId());
+        dto.setQuizTitle(result.getQuiz().getTitle());
+        dto.setSubmittedAt(result.getSubmitDate());
+        dto.setStartedAt(result.getStartTime());
+        dto.setResultStatus(QuizService.pendingStatus(result));
+        return dto;
+    }
+
     private QuizResultDto mapToDTO(QResult result) {
+        if (isPending(result)) return mapToPendingDTO(result);
+
         QuizResultDto dto = new QuizResultDto();
 
         dto.setId(result.getId());
@@ -148,6 +170,7 @@ public class QuizResultService {
     public List<QuizResultDto> getMistakeResults(String name) {
         List<QResult> mistakeResult = qResultRepo.findByStudent_UsernameOrderBySubmitDateDesc(name);
         return mistakeResult.stream()
+                .filter(r -> !isPending(r)) // not graded yet, so no mistakes to show
                 .filter(r->!r.getTotalMarks().equals(r.getScoreObtained()))
                 .map(this::mapToSummaryDTO)
                 .collect(Collectors.toList());
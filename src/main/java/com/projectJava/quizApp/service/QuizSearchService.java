@@ -0,0 +1,98 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.ExploreDtos.QuizSearchPageDto;
+import com.projectJava.quizApp.DTO.ExploreDtos.QuizSearchResultDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over the public library: quiz title, subject and description plus question text.
+ * Both tables carry a generated search_vector with a GIN index (see SchemaInitializer), so candidates
+ * come from two index lookups. Every search term is matched as a prefix, results are ranked with
+ * ts_rank and paged by keyset on (rank, id) instead of OFFSET.
+ */
+@Service
+public class QuizSearchService {
+
+    public static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_TERMS = 8;
+
+    // A question hit counts for half as much as the same hit in the quiz's own title/subject/description
+    private static final String SEARCH =
+            "WITH query AS (SELECT to_tsquery('english', ?) AS tsq), " +
+            "hits AS (SELECT q.id AS quiz_id FROM quiz q, query WHERE q.search_vector @@ query.tsq " +
+            "UNION SELECT qs.quiz_id FROM question qs, query WHERE qs.search_vector @@ query.tsq AND qs.quiz_id IS NOT NULL), " +
+            "ranked AS (SELECT q.id, q.title, q.subject, q.difficulty, q.description, COALESCE(m.matched, 0) AS matched, " +
+            "CAST(ts_rank(q.search_vector, query.tsq) + 0.5 * COALESCE(m.best, 0) AS real) AS rank " +
+            "FROM hits h JOIN quiz q ON q.id = h.quiz_id CROSS JOIN query " +
+            "LEFT JOIN LATERAL (SELECT MAX(ts_rank(qs.search_vector, query.tsq)) AS best, COUNT(*) AS matched " +
+            "FROM question qs WHERE qs.quiz_id = q.id AND qs.search_vector @@ query.tsq) m ON true " +
+            "WHERE q.status = 'PUBLISHED' AND q.batch_id IS NULL) " +
+            "SELECT * FROM ranked ";
+
+    private static final String ORDER = "ORDER BY rank DESC, id DESC LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public QuizSearchPageDto search(String text, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new RuntimeException("size must be between 1 and " + MAX_PAGE_SIZE);
+        String tsQuery = toPrefixQuery(text);
+
+        // 1. Build the statement; the cursor continues strictly after the last row of the previous page
+        List<Object> args = new ArrayList<>();
+        args.add(tsQuery);
+        String sql = SEARCH;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            try {
+                if (parts.length != 2) throw new NumberFormatException();
+                float rank = Float.parseFloat(parts[0]);
+                long id = Long.parseLong(parts[1]);
+                sql += "WHERE (rank, id) < (CAST(? AS real), ?) ";
+                args.add(rank);
+                args.add(id);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        args.add(size + 1); // one extra row tells whether there is a next page
+
+        // 2. Run it
+        List<QuizSearchResultDto> rows = jdbcTemplate.query(sql + ORDER, (rs, i) -> QuizSearchResultDto.builder()
+                .id(rs.getLong("id"))
+                .title(rs.getString("title"))
+                .category(rs.getString("subject"))
+                .difficulty(rs.getString("difficulty"))
+                .description(rs.getString("description"))
+                .matchedQuestions(rs.getLong("matched"))
+                .rank(rs.getFloat("rank"))
+                .build(), args.toArray());
+
+        // 3. Trim the look-ahead row and hand out the cursor of the last row kept
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            QuizSearchResultDto last = rows.get(size - 1);
+            nextCursor = last.getRank() + ":" + last.getId();
+        }
+        return QuizSearchPageDto.builder().results(rows).nextCursor(nextCursor).build();
+    }
+
+    // "java stream" -> "java:* & stream:*"; only letters and digits reach to_tsquery, so any input is safe
+    static String toPrefixQuery(String text) {
+        List<String> terms = text == null ? List.of() : Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .toList();
+        if (terms.isEmpty()) throw new RuntimeException("Search text must contain at least one letter or digit");
+        return terms.stream().map(t -> t + ":*").collect(Collectors.joining(" & "));
+    }
+}
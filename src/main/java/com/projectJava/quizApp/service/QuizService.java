@@ -3,16 +3,24 @@ package com.projectJava.quizApp.service;
 import com.projectJava.quizApp.DTO.QuizDto;
 import com.projectJava.quizApp.DTO.QuizResultDto;
 import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import com.projectJava.quizApp.exception.ConflictException;
 import com.projectJava.quizApp.model.*;
 import com.projectJava.quizApp.repo.*;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +40,18 @@ public class QuizService {
     private QuestionRepo questionRepo;
     @Autowired
     private UserRepo customerRepo; // or CustomerRepo
+    @Autowired
+    private AnswerKeyService answerKeyService;
+    @Autowired
+    private ExamPaperService examPaperService;
+    @Autowired
+    private AttemptSessionStore attemptSessionStore;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Same window the deadline sweeper leaves for late submits (slow network on the last second)
+    @Value("${quiz.attempt.grace-seconds:30}")
+    private int graceSeconds;
 
     @Transactional
     public void startQuizSession(Long quizId, String username) {
@@ -45,6 +65,10 @@ public class QuizService {
         if (existingAttempt != null && !existingAttempt.isEmpty()) {
             return; // Already started
         }
+        // Batch quizzes are taken once (uq_qresult_single_attempt backs this up against races)
+        if (quiz.getBatch() != null && qResultRepo.existsByStudentIdAndQuizIdAndSubmitDateIsNotNull(student.getId(), quizId)) {
+            throw new ConflictException("You have already submitted this quiz");
+        }
 
         QResult attempt = new QResult();
         attempt.setStudent(student);
@@ -52,26 +76,15 @@ public class QuizService {
         attempt.setStartTime(LocalDateTime.now());
         attempt.setScoreObtained(0);
         attempt.setTotalMarks(quiz.getTotalMarks());
+        attempt.setSingleAttempt(quiz.getBatch() != null ? Boolean.TRUE : null);
 
-        // NEW: Set initial remaining time (Minutes * 60)
-        attempt.setRemainingSeconds(quiz.getTimerInMin() * 60);
+        // Server-side deadline; remaining time is computed from it, never reported by the client
+        attempt.setDeadline(AttemptSessionStore.deadlineFor(quiz, attempt.getStartTime()));
 
         qResultRepo.save(attempt);
+        attemptSessionStore.register(student.getId(), quizId, attempt);
     }
 
-    @Transactional
-    public void updateTimer(Long quizId, String username, Integer secondsLeft) {
-        Customer student = customerRepo.findByUsername(username).orElseThrow();
-
-        // Fetch the ACTIVE attempt
-        List<QResult> attempts = qResultRepo.findByStudentIdAndQuizIdAndSubmitDateIsNull(student.getId(), quizId);
-
-        if (!attempts.isEmpty()) {
-            QResult current = attempts.get(0);
-            current.setRemainingSeconds(secondsLeft);
-            qResultRepo.save(current);
-        }
-    }
     public List<QuizDto> getStudentActiveQuizzes(String username) {
         // 1. Find Student
         Customer student = customerRepo.findByUsername(username)
@@ -129,15 +142,14 @@ public class QuizService {
         quiz.setBatch(batch);
 
         Quiz saved = quizRepo.save(quiz);
+        eventPublisher.publishEvent(new QuizChangedEvent(batch.getInstructor().getId(), saved.getId()));
         return mapToDto(saved);
     }
 
     // 2. Get Quizzes by Batch (Check Role Comparison)
-    public List<QuizDto> getQuizzesByBatch(Long batchId, Long userId) {
-        Customer user = customerRepo.findById(userId).orElseThrow();
-
-        // CHECK: If your Role is an Enum, use .name().equals() or == Role.INSTRUCTOR
-        boolean isInstructor = user.getRole().toString().equals("INSTRUCTOR");
+    // role comes from the caller's token (AuthUser), so no user row is loaded here
+    public List<QuizDto> getQuizzesByBatch(Long batchId, String role) {
+        boolean isInstructor = "INSTRUCTOR".equals(role);
 
         List<Quiz> quizzes;
         if (isInstructor) {
@@ -185,24 +197,25 @@ public class QuizService {
         // Moving quizzes between batches is complex and rarely needed.
 
         Quiz updatedQuiz = quizRepo.save(quiz);
+        examPaperService.evict(quizId);
+        eventPublisher.publishEvent(new QuizChangedEvent(quiz.getBatch().getInstructor().getId(), quizId));
 
         return mapToDto(updatedQuiz);
     }
 
     // 3. Start Quiz (SECURED)
-    public ResponseEntity<List<QuestionWrapper>> getQuizQuestion(Long id) {
-        Optional<Quiz> quizOpt = quizRepo.findById(id);
-        if (quizOpt.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        Quiz quiz = quizOpt.get();
+    // Checks run on every request against cached metadata; the paper itself is pre-serialized JSON
+    public ResponseEntity<byte[]> getQuizQuestion(Long id, String ifNoneMatch) {
+        ExamPaperService.QuizMeta quiz = examPaperService.getMeta(id);
+        if (quiz == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         // === SECURITY FIX START ===
         // Prevent students from accessing Drafts or Future quizzes via direct URL
         LocalDateTime now = LocalDateTime.now();
 
-        boolean isPublished = quiz.getStatus() == QuizStatus.PUBLISHED;
-        boolean isStarted = quiz.getStartDate() == null || !now.isBefore(quiz.getStartDate());
-        boolean isEnded = quiz.getEndDate() != null && now.isAfter(quiz.getEndDate());
+        boolean isPublished = quiz.status() == QuizStatus.PUBLISHED;
+        boolean isStarted = quiz.startDate() == null || !now.isBefore(quiz.startDate());
+        boolean isEnded = quiz.endDate() != null && now.isAfter(quiz.endDate());
 
         if (!isPublished || !isStarted) {
             // Quiz hasn't started or is still a draft
@@ -213,23 +226,21 @@ public class QuizService {
         }
         // === SECURITY FIX END ===
 
-        List<Question> questionsFromDB = quiz.getQuestions();
-        List<QuestionWrapper> safeQuestions = new ArrayList<>();
-
-        for (Question q : questionsFromDB) {
-            QuestionWrapper wrapper = new QuestionWrapper(
-                    q.getId(),
-                    q.getQuestionTitle(),
-                    q.getOption1(),
-                    q.getOption2(),
-                    q.getOption3(),
-                    q.getOption4(),
-                    q.getMarks()
-            );
-            safeQuestions.add(wrapper);
-        }
+        ExamPaperService.ExamPaper paper = examPaperService.getPaper(id);
 
-        return new ResponseEntity<>(safeQuestions, HttpStatus.OK);
+        // no-cache: the browser may keep the paper but must revalidate, so the checks above always run
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (paper.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(paper.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(paper.etag())
+                .cacheControl(cacheControl)
+                .body(paper.json());
     }
 
     // Inside QuizService
@@ -321,7 +332,36 @@ public class QuizService {
     // 4. Submit Placeholder (Keep existing)
     @Transactional
     public QuizResultDto submitQuiz(Long quizId, List<Response> responses, String name) {
+        return submitQuiz(quizId, responses, name, null);
+    }
+
+    // submissionKey: optional client idempotency key; a retry with the same key never grades twice
+    @Transactional
+    public QuizResultDto submitQuiz(Long quizId, List<Response> responses, String name, String submissionKey) {
+        Optional<QuizResultDto> replay = findSubmitted(submissionKey);
+        if (replay.isPresent()) return replay.get();
+
+        Optional<QResult> closed = closeAttempt(quizId, name, submissionKey);
+        if (closed.isEmpty()) {
+            // A concurrent request closed the attempt first; if it was a retry of this one, return its outcome
+            return findSubmitted(submissionKey)
+                    .orElseThrow(() -> new ConflictException("This attempt has already been submitted"));
+        }
+        QResult result = closed.get();
+        return gradeAttempt(result.getQuiz(), result, responses);
+    }
 
+    // Outcome of an earlier submission made with this idempotency key, if any
+    public Optional<QuizResultDto> findSubmitted(String submissionKey) {
+        if (submissionKey == null) return Optional.empty();
+        return qResultRepo.findBySubmissionKey(submissionKey).map(this::toResultDto);
+    }
+
+    // Steps 1-3 of a submission: find (or create) the attempt and stop its clock.
+    // Shared with the async path, which grades the returned row later.
+    // Empty when another request closed the same open attempt in the meantime.
+    @Transactional
+    public Optional<QResult> closeAttempt(Long quizId, String name, String submissionKey) {
         // 1. Fetch Quiz and Student
         Quiz quiz = quizRepo.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
@@ -333,45 +373,81 @@ public class QuizService {
         List<QResult> attempts = qResultRepo.findByStudentIdAndQuizIdAndSubmitDateIsNull(student.getId(), quizId);
 
         QResult result;
+        LocalDateTime now = LocalDateTime.now();
 
         if (!attempts.isEmpty()) {
             // Found the row created when timer started! Use it.
             result = attempts.get(0);
+
+            // Past deadline + grace the answers no longer count; the sweeper finalizes the attempt with score 0
+            LocalDateTime deadline = result.getDeadline() != null
+                    ? result.getDeadline()
+                    : AttemptSessionStore.deadlineFor(quiz, result.getStartTime());
+            if (deadline != null && now.isAfter(deadline.plusSeconds(graceSeconds))) {
+                throw new RuntimeException("Time is up for this attempt; it has been submitted automatically");
+            }
+
+            // Conditional close: only one request can flip submit_date, so grading runs at most once
+            if (qResultRepo.closeIfOpen(result.getId(), now, submissionKey) == 0) {
+                return Optional.empty();
+            }
         } else {
             // Fallback: If no start row exists (e.g. user refreshed DB or bypassed start), create new.
+            // Batch quizzes are taken once: an attempt that was already submitted (or auto-submitted
+            // by the sweeper) is never graded a second time through here.
+            if (quiz.getBatch() != null && qResultRepo.existsByStudentIdAndQuizIdAndSubmitDateIsNotNull(student.getId(), quizId)) {
+                throw new ConflictException("This attempt has already been submitted");
+            }
+            if (quiz.getEndDate() != null && now.isAfter(quiz.getEndDate().plusSeconds(graceSeconds))) {
+                throw new RuntimeException("This quiz has ended");
+            }
+            // A concurrent retry fails on the submissionKey or single-attempt unique index (409).
             result = new QResult();
             result.setQuiz(quiz);
             result.setStudent(student);
-            result.setStartTime(LocalDateTime.now()); // Approximate start time
+            result.setStartTime(now); // Approximate start time
+            result.setScoreObtained(0); // as in startQuizSession; async mode saves the row before grading
+            result.setSingleAttempt(quiz.getBatch() != null ? Boolean.TRUE : null);
         }
 
         // 3. Update the existing row with submission details
-        result.setSubmitDate(LocalDateTime.now()); // STOP THE CLOCK
+        result.setSubmitDate(now); // STOP THE CLOCK
+        result.setSubmissionKey(submissionKey);
         result.setTotalMarks(quiz.getTotalMarks());
 
+        return Optional.of(result);
+    }
+
+    // Steps 4-6: grade the responses against the answer key and persist them on the attempt
+    @Transactional
+    public QuizResultDto gradeAttempt(Quiz quiz, QResult result, List<Response> responses) {
+        Long quizId = quiz.getId();
+        Long studentId = result.getStudent().getId();
+
         int correctAnswersCount = 0;
         int scoreObtained = 0;
 
         List<SubmittedAnswer> answerEntities = new ArrayList<>();
 
-        // 4. Process Answers
+        // 4. Process Answers (pure in-memory pass over the cached answer key)
+        AnswerKey answerKey = answerKeyService.getAnswerKey(quizId);
+
         for (Response userReq : responses) {
-            Question question = questionRepo.findById(userReq.getId()).orElse(null);
+            AnswerKey.Item item = answerKey.get(userReq.getId());
 
-            if (question != null) {
-                // A. Create Answer Entity
+            if (item != null) {
+                // A. Create Answer Entity (reference only, no SELECT for the question)
                 SubmittedAnswer ans = new SubmittedAnswer();
-                ans.setQuestion(question);
+                ans.setQuestion(questionRepo.getReferenceById(userReq.getId()));
                 ans.setResult(result);
                 ans.setSelectedResponse(userReq.getResponse());
 
                 answerEntities.add(ans);
 
                 // B. Check Score
-                if (userReq.getResponse() != null &&
-                        userReq.getResponse().trim().equalsIgnoreCase(question.getRightAnswer().trim())) {
+                if (item.isCorrect(userReq.getResponse())) {
                     correctAnswersCount++;
-                    scoreObtained += (question.getMarks() != null ? question.getMarks() : 1);
+                    scoreObtained += item.marks();
                 }
             }
         }
@@ -379,6 +455,8 @@ public class QuizService {
         // 5. Finalize and Save
         result.setScoreObtained(scoreObtained);
         result.setCorrectAnswers(correctAnswersCount);
+        result.setGradingPending(false);
+        result.setPendingReadModels(AttemptReadModels.ALL); // applied after commit by the read-model listeners
 
         // If re-submitting, we might want to clear old answers, but usually
         // a student submits only once. Just setting the list is fine for new objects.
@@ -386,11 +464,34 @@ public class QuizService {
 
         // This effectively UPDATES the existing row because 'result' has an ID
         QResult savedResult = qResultRepo.save(result);
+        attemptSessionStore.remove(studentId, quizId);
+        eventPublisher.publishEvent(new QuizAttemptFinalizedEvent(savedResult.getId(), quizId, studentId,
+                scoreObtained, savedResult.getTotalMarks(), savedResult.getStartTime(), savedResult.getSubmitDate()));
 
         // 6. Return DTO
+        return toResultDto(savedResult);
+    }
+
+    // PENDING while queued; GRADING_FAILED once the queue gave up on it, so pollers can stop
+    public static String pendingStatus(QResult result) {
+        return Boolean.TRUE.equals(result.getGradingFailed()) ? "GRADING_FAILED" : "PENDING";
+    }
+
+    // Submission response for a closed attempt (PENDING while it waits in the async queue)
+    public QuizResultDto toResultDto(QResult result) {
+        Quiz quiz = result.getQuiz();
+
         QuizResultDto resultDto = new QuizResultDto();
         resultDto.setQuizId(quiz.getId());
-        resultDto.setId(savedResult.getId());
+        resultDto.setId(result.getId());
+
+        if (Boolean.TRUE.equals(result.getGradingPending())) {
+            resultDto.setSubmittedAt(result.getSubmitDate());
+            resultDto.setResultStatus(pendingStatus(result));
+            return resultDto;
+        }
+
+        int scoreObtained = result.getScoreObtained() != null ? result.getScoreObtained() : 0;
         resultDto.setScore(Double.valueOf(scoreObtained));
         resultDto.setScoreObtained(scoreObtained);
         resultDto.setTotalMarks(quiz.getTotalMarks().doubleValue());
@@ -437,6 +538,9 @@ public class QuizService {
 
         // 3. If NO submissions, it is safe to hard delete
         quizRepo.delete(quiz);
+        answerKeyService.invalidate(quizId);
+        examPaperService.evict(quizId);
+        eventPublisher.publishEvent(new QuizChangedEvent(quiz.getBatch().getInstructor().getId(), quizId));
     }
 
     @Transactional
@@ -459,18 +563,17 @@ public class QuizService {
         // 2. Safe to delete
         // Optional: Recalculate Quiz Totals here if you want
         questionRepo.delete(question);
+        answerKeyService.invalidate(question.getQuiz().getId());
+        examPaperService.evict(question.getQuiz().getId());
     }
 
-    public Map<String, Object> getAttemptStatus(Long quizId, String username) {
-        Customer student = customerRepo.findByUsername(username).orElseThrow();
-        List<QResult> activeAttempts = qResultRepo.findByStudentIdAndQuizIdAndSubmitDateIsNull(student.getId(), quizId);
-
-        if (!activeAttempts.isEmpty()) {
-            QResult currentAttempt = activeAttempts.get(0);
+    public Map<String, Object> getAttemptStatus(Long quizId, Long studentId) {
+        AttemptSessionStore.Session session = attemptSessionStore.get(studentId, quizId);
 
-            // Return the EXACT saved seconds, not a date calculation
-            return Map.of(
-                    "remainingSeconds", currentAttempt.getRemainingSeconds()
+        if (session != null) {
+            // Computed from the fixed deadline (null when the quiz has no time limit)
+            return Collections.singletonMap(
+                    "remainingSeconds", session.getRemainingSeconds(LocalDateTime.now())
             );
         }
         return null;
@@ -0,0 +1,227 @@
+package com.projectJava.quizApp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projectJava.quizApp.model.Batch;
+import com.projectJava.quizApp.model.Quiz;
+import com.projectJava.quizApp.repo.BatchRepo;
+import com.projectJava.quizApp.repo.QuizRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Grade exports for a quiz, a batch or all of an instructor's batches, as CSV or NDJSON.
+ * Rows are streamed from a forward-only server-side cursor straight into the response,
+ * so memory stays flat however many results there are.
+ */
+@Service
+public class ResultExportService {
+
+    // Rows per round trip; Postgres only streams with a fetch size inside a transaction
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String SELECT_ROWS =
+            "SELECT r.id, b.id AS batch_id, b.batch_name, q.id AS quiz_id, q.title, s.id AS student_id, s.username, s.email, " +
+            "r.score_obtained, r.total_marks, q.passing_marks, r.start_time, r.submit_date " +
+            "FROM qresult r JOIN quiz q ON q.id = r.quiz_id JOIN batches b ON b.id = q.batch_id JOIN customer s ON s.id = r.student_id " +
+            "WHERE r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false AND ";
+
+    private static final String ORDER = " ORDER BY b.id, q.id, r.submit_date, r.id";
+
+    private static final String[] COLUMNS = {
+            "resultId", "batchId", "batchName", "quizId", "quizTitle", "studentId", "studentName", "studentEmail",
+            "score", "totalMarks", "percentage", "passed", "startedAt", "submittedAt", "timeTakenSeconds"};
+
+    @Autowired
+    private QuizRepo quizRepo;
+    @Autowired
+    private BatchRepo batchRepo;
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnly;
+
+    public ResultExportService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public record ExportFile(String fileName, String contentType, StreamingResponseBody body) {
+    }
+
+    // Ownership and format are checked up front, so errors still come back as a normal 400
+    public ExportFile exportQuiz(Long quizId, String username, String format, boolean gzip) {
+        Quiz quiz = quizRepo.findById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        if (quiz.getBatch() == null || !isOwner(quiz.getBatch(), username)) {
+            throw new RuntimeException("Unauthorized: You do not own this quiz");
+        }
+        return export("quiz-" + quizId, "q.id = ?", quizId, format, gzip);
+    }
+
+    public ExportFile exportBatch(Long batchId, String username, String format, boolean gzip) {
+        Batch batch = batchRepo.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("Batch not found"));
+        if (!isOwner(batch, username)) {
+            throw new RuntimeException("Unauthorized: You do not own this batch");
+        }
+        return export("batch-" + batchId, "b.id = ?", batchId, format, gzip);
+    }
+
+    public ExportFile exportInstructor(String username, String format, boolean gzip) {
+        Long profileId = instructorStatsService.findProfileId(username)
+                .orElseThrow(() -> new RuntimeException("Instructor profile not found"));
+        return export("all", "b.instructor_profile_id = ?", profileId, format, gzip);
+    }
+
+    private boolean isOwner(Batch batch, String username) {
+        return batch.getInstructor() != null && batch.getInstructor().getCustomer().getUsername().equals(username);
+    }
+
+    private ExportFile export(String name, String scope, Long id, String format, boolean gzip) {
+        boolean csv;
+        if ("csv".equalsIgnoreCase(format)) csv = true;
+        else if ("ndjson".equalsIgnoreCase(format)) csv = false;
+        else throw new RuntimeException("format must be 'csv' or 'ndjson'");
+
+        String fileName = "results-" + name + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        String contentType = gzip ? "application/gzip" : csv ? "text/csv; charset=UTF-8" : "application/x-ndjson";
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+            RowWriter rows = csv ? new CsvRowWriter(writer) : new NdjsonRowWriter(objectMapper, writer);
+
+            rows.header();
+            readOnly.executeWithoutResult(status -> cursorTemplate.query(SELECT_ROWS + scope + ORDER, (RowCallbackHandler) rs -> {
+                try {
+                    rows.row(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away; stops the cursor
+                }
+            }, id));
+            rows.finish();
+            writer.flush();
+            if (target instanceof GZIPOutputStream zip) zip.finish();
+        };
+        return new ExportFile(fileName, contentType, body);
+    }
+
+    // --- Row formats ---
+
+    private interface RowWriter {
+        void header() throws IOException;
+        void row(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+
+    // Values of one result row in COLUMNS order
+    private static Object[] values(ResultSet rs) throws SQLException {
+        Integer score = (Integer) rs.getObject("score_obtained");
+        Integer total = (Integer) rs.getObject("total_marks");
+        Integer passing = (Integer) rs.getObject("passing_marks");
+        Timestamp started = rs.getTimestamp("start_time");
+        Timestamp submitted = rs.getTimestamp("submit_date");
+
+        int s = score != null ? score : 0;
+        Double pct = total != null && total > 0 ? Math.round((double) s / total * 1000.0) / 10.0 : 0.0;
+        Long seconds = started != null && submitted != null
+                ? Duration.between(started.toLocalDateTime(), submitted.toLocalDateTime()).toSeconds()
+                : null;
+
+        return new Object[]{
+                rs.getLong("id"), rs.getLong("batch_id"), rs.getString("batch_name"), rs.getLong("quiz_id"),
+                rs.getString("title"), rs.getLong("student_id"), rs.getString("username"), rs.getString("email"),
+                s, total, pct, s >= (passing != null ? passing : 0),
+                started != null ? started.toLocalDateTime().toString() : null,
+                submitted.toLocalDateTime().toString(), seconds};
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header() throws IOException {
+            out.write(String.join(",", COLUMNS));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Object[] values = values(rs);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                Object v = values[i];
+                if (v instanceof String text) out.write(escape(text));
+                else if (v != null) out.write(v.toString());
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        // RFC 4180 quoting; text that a spreadsheet would run as a formula is prefixed with '
+        private static String escape(String text) {
+            if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) text = "'" + text;
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) return text;
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(ObjectMapper mapper, Writer out) throws IOException {
+            this.json = mapper.getFactory().createGenerator(out);
+            this.json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Object[] values = values(rs);
+            json.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                json.writeFieldName(COLUMNS[i]);
+                json.writeObject(values[i]);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -6,63 +6,69 @@ import com.projectJava.quizApp.repo.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class StudentDashboardService {
 
-    @Autowired private UserRepo userRepo; // CustomerRepo
     @Autowired private AssignmentRepo assignmentRepo; // InstructorStudentAssignment
-    @Autowired private QuizRepo quizRepo;
+    @Autowired private StudentQuizStatusRepo quizStatusRepo;
     @Autowired private QResultRepo qResultRepo;
     @Autowired private AnnouncementRepo announcementRepo;
+    @Autowired private DashboardSections dashboardSections;
 
-    public StudentDashboardDto getDashboardData(String username) {
-        Customer student = userRepo.findByUsername(username).orElseThrow();
-        Long studentId = student.getId();
+    public StudentDashboardDto getDashboardData(Long studentId) {
+        // Sections load side by side; one that fails or runs late shows up empty
+        DashboardSections.Scope sections = dashboardSections.open();
 
-        // 1. Get Batches/Instructors the student is enrolled in
-        List<InstructorStudentAssignment> enrollments = assignmentRepo.findByStudentId(studentId);
-        List<Long> batchIds = enrollments.stream().map(e -> e.getBatch().getId()).toList();
+        // 1. Get Batches/Instructors the student is enrolled in (flat rows, no entity graph)
+        CompletableFuture<List<EnrollmentSummary>> enrollmentRows = sections.fork("enrollments",
+                () -> assignmentRepo.findEnrollmentSummaries(studentId), List.of());
 
-        // 2. Get All Quizzes for these batches
-        List<Quiz> allQuizzes = quizRepo.findActiveQuizzesForBatches(batchIds); // Reusing method from previous step
+        // 2. One row per assigned quiz, already carrying status, score and due date
+        CompletableFuture<List<StudentQuizStatus>> quizRows = sections.fork("quizzes",
+                () -> quizStatusRepo.findByStudentId(studentId), List.of());
 
-        // 3. Get All My Results
-        List<QResult> myResults = qResultRepo.findByStudentId(studentId);
+        // 3. Announcements of the student's batches (as soon as the enrollments are in) and recent feedback
+        CompletableFuture<List<AnnouncementDto>> announcementRows = enrollmentRows.thenCompose(list -> sections.fork("announcements",
+                () -> toAnnouncementDtos(announcementRepo.findByBatchIdIn(list.stream().map(EnrollmentSummary::getBatchId).toList())),
+                List.of()));
+        CompletableFuture<List<FeedbackDto>> feedbackRows = sections.fork("feedback",
+                () -> toFeedbackDtos(qResultRepo.findTop5ByStudentIdAndInstructorFeedbackIsNotNullOrderBySubmitDateDesc(studentId)),
+                List.of());
+
+        List<EnrollmentSummary> enrollments = enrollmentRows.join();
+        List<StudentQuizStatus> rows = quizRows.join();
 
         // --- DATA PROCESSING ---
 
         // A. Process Quizzes (Pending vs Completed)
+        Map<Long, String> instructorNames = new HashMap<>();
+        enrollments.forEach(e -> instructorNames.put(e.getInstructorId(), e.getInstructorName()));
+
         List<QuizSummaryItemDto> quizList = new ArrayList<>();
         int pendingCount = 0;
-        int completedCount = 0;
-
-        for (Quiz quiz : allQuizzes) {
-            // Check if I have a result for this quiz
-            Optional<QResult> result = myResults.stream()
-                    .filter(r -> r.getQuiz().getId().equals(quiz.getId()))
-                    .findFirst();
+        LocalDateTime now = LocalDateTime.now();
 
+        for (StudentQuizStatus row : rows) {
             QuizSummaryItemDto item = QuizSummaryItemDto.builder()
-                    .id(quiz.getId().toString())
-                    .title(quiz.getTitle())
-                    .instructorName(quiz.getBatch().getInstructor().getDisplayName()) // Or user.username
-                    .subject(quiz.getSubject())
-                    .dueDate(quiz.getEndDate() != null ? quiz.getEndDate().toLocalDate() : null)
-                    .maxScore(String.valueOf(quiz.getTotalMarks()))
+                    .id(row.getQuizId().toString())
+                    .title(row.getQuizTitle())
+                    .instructorName(instructorNames.get(row.getInstructorProfileId()))
+                    .subject(row.getSubject())
+                    .dueDate(row.getDueDate() != null ? row.getDueDate().toLocalDate() : null)
+                    .maxScore(String.valueOf(row.getMaxScore()))
                     .build();
 
-            if (result.isPresent()) {
+            if (row.isCompleted()) {
                 item.setStatus("Completed");
-                item.setScore(String.valueOf(result.get().getScoreObtained()));
-                completedCount++;
+                item.setScore(String.valueOf(row.getScoreObtained()));
             } else {
                 // Check Overdue
-                if (quiz.getEndDate() != null && LocalDateTime.now().isAfter(quiz.getEndDate())) {
+                if (row.getDueDate() != null && now.isAfter(row.getDueDate())) {
                     item.setStatus("Overdue");
                 } else {
                     item.setStatus("Pending");
@@ -73,32 +79,31 @@ public class StudentDashboardService {
             quizList.add(item);
         }
 
-        // B. Calculate Overall Average
-        double overallAvg = myResults.stream()
-                .mapToDouble(r -> (r.getTotalMarks() > 0) ? (r.getScoreObtained().doubleValue() / r.getTotalMarks()) * 100 : 0)
+        // B. Calculate Overall Average (completed quizzes)
+        double overallAvg = rows.stream()
+                .filter(StudentQuizStatus::isCompleted)
+                .mapToDouble(this::percentage)
                 .average().orElse(0.0);
 
-        // C. Build Instructors List
-        List<InstructorSummaryDto> instructorList = enrollments.stream().map(enrollment -> {
-            InstructorProfile instructor = enrollment.getBatch().getInstructor();
+        // C. Build Instructors List (one entry per instructor, even across several batches)
+        Map<Long, EnrollmentSummary> instructors = new LinkedHashMap<>();
+        enrollments.forEach(e -> instructors.putIfAbsent(e.getInstructorId(), e));
 
+        List<InstructorSummaryDto> instructorList = instructors.values().stream().map(instructor -> {
             // Filter quizzes/results specific to this instructor
-            List<Quiz> instructorsQuizzes = allQuizzes.stream()
-                    .filter(q -> q.getBatch().getInstructor().getId().equals(instructor.getId()))
+            List<StudentQuizStatus> instructorsQuizzes = rows.stream()
+                    .filter(r -> r.getInstructorProfileId().equals(instructor.getInstructorId()))
                     .toList();
 
-            List<QResult> instructorResults = myResults.stream()
-                    .filter(r -> r.getQuiz().getBatch().getInstructor().getId().equals(instructor.getId()))
-                    .toList();
-
-            double myAvgForInstructor = instructorResults.stream()
-                    .mapToDouble(r -> (r.getTotalMarks()>0)?(r.getScoreObtained().doubleValue()/r.getTotalMarks())*100:0)
+            double myAvgForInstructor = instructorsQuizzes.stream()
+                    .filter(StudentQuizStatus::isCompleted)
+                    .mapToDouble(this::percentage)
                     .average().orElse(0.0);
 
             return InstructorSummaryDto.builder()
-                    .id(instructor.getId().toString())
-                    .name(instructor.getDisplayName())
-                    .email(instructor.getCustomer().getEmail())
+                    .id(instructor.getInstructorId().toString())
+                    .name(instructor.getInstructorName())
+                    .email(instructor.getInstructorEmail())
 //                    .subject(instructor.getSubjects() != null ? instructor.getSubjects().get(0) : "General") // Pick first subject
                     .totalQuizzes(instructorsQuizzes.size())
                     .averageScore(Math.round(myAvgForInstructor))
@@ -106,30 +111,9 @@ public class StudentDashboardService {
                     .build();
         }).collect(Collectors.toList());
 
-        // D. Fetch Announcements
-        List<Announcement> announcements = announcementRepo.findByBatchIdIn(batchIds);
-        List<AnnouncementDto> announcementDtos = announcements.stream().map(a -> AnnouncementDto.builder()
-                .id(a.getId().toString())
-                .title(a.getTitle())
-                .message(a.getMessage())
-                .instructorName(a.getInstructor().getDisplayName())
-                .priority(a.getPriority())
-                .date(a.getDate().toString())
-                .build()).collect(Collectors.toList());
-
-        // E. Extract Feedback
-        List<FeedbackDto> feedbacks = myResults.stream()
-                .filter(r -> r.getInstructorFeedback() != null && !r.getInstructorFeedback().isEmpty())
-                .map(r -> FeedbackDto.builder()
-                        .id(r.getId().toString())
-                        .quizTitle(r.getQuiz().getTitle())
-                        .instructorName(r.getQuiz().getBatch().getInstructor().getDisplayName())
-                        .feedback(r.getInstructorFeedback())
-                        .date(r.getSubmitDate().toString())
-                        .rating(4) // Placeholder or add rating to DB
-                        .build())
-                .limit(5)
-                .collect(Collectors.toList());
+        // D. Announcements & Feedback (mapped inside their sections, where lazy associations can load)
+        List<AnnouncementDto> announcementDtos = announcementRows.join();
+        List<FeedbackDto> feedbacks = feedbackRows.join();
 
         // F. Build Charts
         // 1. Performance (My Score vs Class Average - Mocking Class Avg for now)
@@ -156,7 +140,7 @@ public class StudentDashboardService {
         return StudentDashboardDto.builder()
                 .stats(List.of(
                         StatCardDto.builder().title("My Instructors").value(String.valueOf(instructorList.size())).changeType("increase").build(),
-                        StatCardDto.builder().title("Instructor Quizzes").value(String.valueOf(allQuizzes.size())).changeType("increase").build(),
+                        StatCardDto.builder().title("Instructor Quizzes").value(String.valueOf(rows.size())).changeType("increase").build(),
                         StatCardDto.builder().title("Average Score").value(Math.round(overallAvg) + "%").changeType("increase").build(),
                         StatCardDto.builder().title("Pending Quizzes").value(String.valueOf(pendingCount)).changeType("decrease").build()
                 ))
@@ -166,6 +150,37 @@ public class StudentDashboardService {
                 .instructorFeedback(feedbacks)
                 .performanceComparison(performanceChart)
                 .quizCompletion(completionChart)
+                .partial(sections.isDegraded())
                 .build();
     }
-}
\ No newline at end of file
+
+    private List<AnnouncementDto> toAnnouncementDtos(List<Announcement> announcements) {
+        return announcements.stream().map(a -> AnnouncementDto.builder()
+                .id(a.getId().toString())
+                .title(a.getTitle())
+                .message(a.getMessage())
+                .instructorName(a.getInstructor().getDisplayName())
+                .priority(a.getPriority())
+                .date(a.getDate().toString())
+                .build()).collect(Collectors.toList());
+    }
+
+    private List<FeedbackDto> toFeedbackDtos(List<QResult> results) {
+        return results.stream()
+                .filter(r -> !r.getInstructorFeedback().isEmpty())
+                .map(r -> FeedbackDto.builder()
+                        .id(r.getId().toString())
+                        .quizTitle(r.getQuiz().getTitle())
+                        .instructorName(r.getQuiz().getBatch().getInstructor().getDisplayName())
+                        .feedback(r.getInstructorFeedback())
+                        .date(r.getSubmitDate().toString())
+                        .rating(4) // Placeholder or add rating to DB
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private double percentage(StudentQuizStatus row) {
+        Integer total = row.getTotalMarks();
+        return (total != null && total > 0) ? (row.getScoreObtained().doubleValue() / total) * 100 : 0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.event.QuizChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains student_quiz_status, the student dashboard's read model, as quizzes are published,
+ * students join or leave batches and attempts are finalized. Every change is one or two set-based
+ * statements, so the dashboard itself is a single indexed lookup by student.
+ */
+@Service
+public class StudentQuizStatusService implements AttemptReadModels.Model {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentQuizStatusService.class);
+
+    // (active enrollment x published quiz of that batch) with the student's latest finalized attempt, if any.
+    // DISTINCT ON guards against duplicate assignment rows for the same batch.
+    private static final String SELECT_ROWS =
+            "SELECT DISTINCT ON (a.student_user_id, q.id) a.student_user_id, q.id, q.batch_id, b.instructor_profile_id, q.title, q.subject, q.end_date, q.total_marks, " +
+            "r.id IS NOT NULL, r.id, r.score_obtained, r.total_marks, r.submit_date " +
+            "FROM instructor_students_assignments a " +
+            "JOIN quiz q ON q.batch_id = a.batch_id AND q.status = 'PUBLISHED' " +
+            "JOIN batches b ON b.id = q.batch_id " +
+            "LEFT JOIN LATERAL (SELECT r.id, r.score_obtained, r.total_marks, r.submit_date FROM qresult r " +
+            "WHERE r.student_id = a.student_user_id AND r.quiz_id = q.id " +
+            "AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "ORDER BY r.submit_date DESC LIMIT 1) r ON true " +
+            "WHERE a.active = true";
+
+    private static final String INSERT_ROWS =
+            "INSERT INTO student_quiz_status (student_id, quiz_id, batch_id, instructor_profile_id, quiz_title, subject, " +
+            "due_date, max_score, completed, result_id, score_obtained, total_marks, submitted_at) ";
+
+    // Quiz metadata follows edits; completion state is left alone
+    private static final String ON_CONFLICT_REFRESH_QUIZ =
+            " ON CONFLICT (student_id, quiz_id) DO UPDATE SET quiz_title = EXCLUDED.quiz_title, subject = EXCLUDED.subject, " +
+            "due_date = EXCLUDED.due_date, max_score = EXCLUDED.max_score";
+
+    private static final String COMPLETE =
+            "UPDATE student_quiz_status SET completed = true, result_id = ?, score_obtained = ?, total_marks = ?, submitted_at = ? " +
+            "WHERE student_id = ? AND quiz_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+    @Autowired
+    private EntityManager entityManager;
+
+    // First start after the table was added: fill it from the existing enrollments and results
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM student_quiz_status LIMIT 1) t", Integer.class);
+            if (existing != null && existing == 0) {
+                int rows = jdbcTemplate.update(INSERT_ROWS + SELECT_ROWS + " ON CONFLICT DO NOTHING");
+                log.info("Backfilled {} student quiz status rows", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill student quiz status: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    @Transactional
+    public void onQuizChanged(QuizChangedEvent event) {
+        entityManager.flush();
+
+        if (event.quizId() == null) {
+            // A whole batch went away; drop rows whose quiz no longer exists
+            jdbcTemplate.update("DELETE FROM student_quiz_status s WHERE s.instructor_profile_id = ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM quiz q WHERE q.id = s.quiz_id)", event.instructorProfileId());
+            return;
+        }
+
+        // Unpublished or deleted: no rows. Published: one row per enrolled student, metadata refreshed.
+        jdbcTemplate.update("DELETE FROM student_quiz_status WHERE quiz_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM quiz q WHERE q.id = ? AND q.status = 'PUBLISHED')", event.quizId(), event.quizId());
+        jdbcTemplate.update(INSERT_ROWS + SELECT_ROWS + " AND q.id = ?" + ON_CONFLICT_REFRESH_QUIZ, event.quizId());
+    }
+
+    @EventListener
+    @Transactional
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        entityManager.flush();
+
+        // Scope: one batch (or the instructor's batches for legacy rows), optionally one student
+        String batchScope = event.batchId() != null
+                ? " = ?"
+                : " IN (SELECT id FROM batches WHERE instructor_profile_id = ?)";
+        String rowScope = "s.batch_id" + batchScope;
+        String enrollmentScope = "a.batch_id" + batchScope;
+        List<Object> args = new ArrayList<>();
+        args.add(event.batchId() != null ? event.batchId() : event.instructorProfileId());
+        if (event.studentId() != null) {
+            rowScope += " AND s.student_id = ?";
+            enrollmentScope += " AND a.student_user_id = ?";
+            args.add(event.studentId());
+        }
+
+        // 1. Rows of enrollments that are no longer active
+        jdbcTemplate.update("DELETE FROM student_quiz_status s WHERE " + rowScope +
+                " AND NOT EXISTS (SELECT 1 FROM instructor_students_assignments a WHERE a.batch_id = s.batch_id " +
+                "AND a.student_user_id = s.student_id AND a.active = true)", args.toArray());
+
+        // 2. Rows for new (or reactivated) enrollments
+        jdbcTemplate.update(INSERT_ROWS + SELECT_ROWS + " AND " + enrollmentScope + " ON CONFLICT DO NOTHING", args.toArray());
+    }
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.STUDENT_QUIZ_STATUS;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.STUDENT_QUIZ_STATUS)) return;
+
+        jdbcTemplate.update(COMPLETE, event.resultId(), event.scoreObtained(), event.totalMarks(),
+                event.submitDate() != null ? Timestamp.valueOf(event.submitDate()) : null,
+                event.studentId(), event.quizId());
+    }
+}
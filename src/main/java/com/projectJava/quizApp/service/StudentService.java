@@ -1,6 +1,7 @@
 package com.projectJava.quizApp.service;
 
 import com.projectJava.quizApp.DTO.InstructorDTO;
+import com.projectJava.quizApp.event.EnrollmentChangedEvent;
 import com.projectJava.quizApp.model.Batch;
 import com.projectJava.quizApp.model.Customer;
 import com.projectJava.quizApp.model.InstructorProfile;
@@ -11,6 +12,7 @@ import com.projectJava.quizApp.repo.InstructorProfileRepo;
 import com.projectJava.quizApp.repo.UserRepo;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +31,9 @@ public class StudentService {
     @Autowired
     private InstructorProfileRepo instructorProfileRepo;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<InstructorDTO> getMyInstructor(Long studentId){
         List<InstructorStudentAssignment> assignments =assignmentRepo.findByStudentIdAndActiveTrue(studentId);
         return assignments.stream()
@@ -59,5 +64,6 @@ public class StudentService {
         assignment.setNotes("Joined Class: " + batch.getBatchName());
 
         assignmentRepo.save(assignment);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(batch.getInstructor().getId(), batch.getId(), studentId));
     }
 }
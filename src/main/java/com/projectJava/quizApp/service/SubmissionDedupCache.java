@@ -0,0 +1,44 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.QuizResultDto;
+import com.projectJava.quizApp.utility.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Recent submit outcomes by idempotency key, so a client retry is answered from memory.
+ * The unique QResult.submissionKey column is the durable backstop when the entry is gone.
+ */
+@Service
+public class SubmissionDedupCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final BoundedCache<String, Outcome> cache;
+
+    public SubmissionDedupCache(@Value("${quiz.submission.dedup-ttl-minutes:15}") long ttlMinutes) {
+        this.cache = new BoundedCache<>(MAX_ENTRIES, Duration.ofMinutes(ttlMinutes));
+    }
+
+    // Scoped per user and quiz so two clients can never collide on the same header value; null without a header
+    public static String keyFor(String username, Long quizId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return null;
+        return username + ":" + quizId + ":" + idempotencyKey.trim();
+    }
+
+    public Outcome get(String key) {
+        return key == null ? null : cache.get(key);
+    }
+
+    // Only final outcomes: a queued (PENDING) answer must not be replayed after grading has finished
+    public void put(String key, int status, QuizResultDto result) {
+        if (key != null && result != null && !"PENDING".equals(result.getResultStatus())) {
+            cache.put(key, new Outcome(status, result));
+        }
+    }
+
+    public record Outcome(int status, QuizResultDto result) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.projectJava.quizApp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projectJava.quizApp.DTO.QuizResultDto;
+import com.projectJava.quizApp.exception.ConflictException;
+import com.projectJava.quizApp.model.PendingSubmission;
+import com.projectJava.quizApp.model.QResult;
+import com.projectJava.quizApp.model.Response;
+import com.projectJava.quizApp.repo.PendingSubmissionRepo;
+import com.projectJava.quizApp.repo.QResultRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Async submission mode (quiz.submission.async=true): a submit request only closes the attempt and
+ * appends the answers to pending_submission; workers grade the queue several attempts per transaction.
+ * Until then the QResult carries gradingPending = true and the result endpoints report PENDING.
+ * An entry that fails quiz.submission.max-attempts times is dead-lettered: it stays in the table with
+ * failed_at set, out of the queue metrics, and its attempt reports GRADING_FAILED. Clearing failed_at requeues it.
+ */
+@Service
+public class SubmissionQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionQueueService.class);
+    private static final TypeReference<List<Response>> RESPONSES = new TypeReference<>() {
+    };
+
+    @Autowired
+    private PendingSubmissionRepo pendingSubmissionRepo;
+    @Autowired
+    private QResultRepo qResultRepo;
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private AttemptSessionStore attemptSessionStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.submission.async:false}")
+    private boolean enabled;
+
+    @Value("${quiz.submission.batch-size:50}")
+    private int batchSize;
+
+    @Value("${quiz.submission.max-attempts:5}")
+    private int maxAttempts;
+
+    private Timer gradingLag;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("quiz.submission.queue.depth", pendingSubmissionRepo, PendingSubmissionRepo::countByFailedAtIsNull)
+                .description("Submissions waiting to be graded")
+                .register(meterRegistry);
+        Gauge.builder("quiz.submission.dead.letters", pendingSubmissionRepo, PendingSubmissionRepo::countByFailedAtIsNotNull)
+                .description("Submissions that failed grading too often and wait for an operator")
+                .register(meterRegistry);
+        Gauge.builder("quiz.submission.queue.oldest.age", this, s -> s.oldestAgeSeconds())
+                .description("Seconds the oldest queued submission has been waiting")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        gradingLag = Timer.builder("quiz.submission.grading.lag")
+                .description("Time from enqueue to graded result")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional
+    public QuizResultDto enqueue(Long quizId, List<Response> responses, String username, String submissionKey) {
+        Optional<QuizResultDto> replay = quizService.findSubmitted(submissionKey);
+        if (replay.isPresent()) return replay.get();
+
+        // 1. Validate and stop the clock (same checks as the synchronous path)
+        Optional<QResult> closed = quizService.closeAttempt(quizId, username, submissionKey);
+        if (closed.isEmpty()) {
+            return quizService.findSubmitted(submissionKey)
+                    .orElseThrow(() -> new ConflictException("This attempt has already been submitted"));
+        }
+        QResult result = closed.get();
+        result.setGradingPending(true);
+        qResultRepo.save(result);
+        attemptSessionStore.remove(result.getStudent().getId(), quizId);
+
+        // 2. Append to the durable queue
+        PendingSubmission pending = new PendingSubmission();
+        pending.setResultId(result.getId());
+        pending.setQuizId(quizId);
+        pending.setStudentId(result.getStudent().getId());
+        pending.setEnqueuedAt(LocalDateTime.now());
+        try {
+            pending.setPayload(objectMapper.writeValueAsString(responses));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not read submission: " + e.getMessage());
+        }
+        pendingSubmissionRepo.save(pending);
+
+        // 3. The handle is the result id, so /result/{id} can be polled right away
+        return quizService.toResultDto(result);
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.submission.worker-interval-ms:1000}")
+    public void drain() {
+        // Synchronous mode enqueues nothing, so it does not poll the table either
+        if (!enabled) return;
+
+        while (true) {
+            int claimed;
+            try {
+                claimed = transactionTemplate.execute(status -> gradeBatch());
+            } catch (RuntimeException e) {
+                // One bad entry rolls back the whole batch; redo it entry by entry to isolate it
+                log.warn("Grading batch failed, retrying one by one: {}", e.getMessage());
+                claimed = gradeIndividually();
+            }
+            if (claimed < batchSize) break;
+        }
+    }
+
+    private int gradeBatch() {
+        List<PendingSubmission> batch = pendingSubmissionRepo.claimBatch(batchSize);
+        for (PendingSubmission pending : batch) {
+            grade(pending);
+        }
+        return batch.size();
+    }
+
+    private int gradeIndividually() {
+        List<Long> ids = pendingSubmissionRepo.findReadyIds(batchSize);
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        pendingSubmissionRepo.claimById(id).ifPresent(this::grade));
+            } catch (RuntimeException e) {
+                log.error("Could not grade queued submission {}: {}", id, e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> markFailed(id, e));
+            }
+        }
+        return ids.size();
+    }
+
+    private void grade(PendingSubmission pending) {
+        QResult result = qResultRepo.findById(pending.getResultId()).orElse(null);
+
+        // Skip rows that are gone or were graded already (e.g. a retry after a crash mid-commit)
+        if (result != null && Boolean.TRUE.equals(result.getGradingPending())) {
+            List<Response> responses;
+            try {
+                responses = objectMapper.readValue(pending.getPayload(), RESPONSES);
+            } catch (Exception e) {
+                throw new RuntimeException("Unreadable submission payload: " + e.getMessage());
+            }
+            result.setGradingFailed(null);
+            quizService.gradeAttempt(result.getQuiz(), result, responses);
+        }
+
+        pendingSubmissionRepo.delete(pending);
+        gradingLag.record(Duration.between(pending.getEnqueuedAt(), LocalDateTime.now()));
+    }
+
+    private void markFailed(Long id, RuntimeException e) {
+        pendingSubmissionRepo.findById(id).ifPresent(pending -> {
+            pending.setAttempts(pending.getAttempts() + 1);
+            String message = String.valueOf(e.getMessage());
+            pending.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+
+            // Out of retries: dead-letter it and tell the student instead of reporting PENDING forever
+            if (pending.getAttempts() >= maxAttempts) {
+                pending.setFailedAt(LocalDateTime.now());
+                qResultRepo.findById(pending.getResultId()).ifPresent(result -> result.setGradingFailed(true));
+                log.error("Queued submission {} dead-lettered after {} attempts", id, pending.getAttempts());
+            }
+        });
+    }
+
+    private double oldestAgeSeconds() {
+        LocalDateTime oldest = pendingSubmissionRepo.findOldestEnqueuedAt();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds();
+    }
+}
@@ -0,0 +1,119 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import com.projectJava.quizApp.model.UserPracticeStats;
+import com.projectJava.quizApp.repo.UserPracticeStatsRepo;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps user_practice_stats current: each finalized attempt is added to the user's row after the submit
+ * has committed, so the personal dashboard never reloads the attempt history. The row is built from qresult
+ * on the first dashboard read; until then finalized attempts are simply picked up by that build.
+ * Build and add hold the same per-user lock (see AttemptReadModels), so an attempt is counted exactly once.
+ */
+@Service
+public class UserPracticeStatsService implements AttemptReadModels.Model {
+
+    private static final String PCT =
+            "CASE WHEN r.total_marks > 0 THEN CAST(r.score_obtained AS double precision) / r.total_marks * 100 ELSE 0 END";
+
+    // Attempts whose listener is still due are added by it once the row exists
+    private static final String FINALIZED =
+            "FROM qresult r WHERE r.student_id = ? AND r.submit_date IS NOT NULL AND COALESCE(r.grading_pending, false) = false " +
+            "AND " + AttemptReadModels.applied(AttemptReadModels.PRACTICE_STATS);
+
+    // Length of the run of consecutive days that ends on the latest active day
+    private static final String STREAK =
+            "(SELECT COUNT(*) FROM (SELECT d, ROW_NUMBER() OVER (ORDER BY d DESC) AS rn " +
+            "FROM (SELECT DISTINCT CAST(r.submit_date AS date) AS d " + FINALIZED + ") days) x " +
+            "WHERE x.d = (SELECT MAX(CAST(r.submit_date AS date)) " + FINALIZED + ") - CAST(x.rn - 1 AS integer))";
+
+    private static final String BUILD =
+            "INSERT INTO user_practice_stats (user_id, completed_count, pct_sum, band_excellent, band_good, band_average, band_poor, " +
+            "current_streak, last_active_day, updated_at) " +
+            "SELECT ?, COUNT(*), COALESCE(SUM(p.pct), 0), " +
+            "COUNT(*) FILTER (WHERE p.pct >= 90), COUNT(*) FILTER (WHERE p.pct >= 75 AND p.pct < 90), " +
+            "COUNT(*) FILTER (WHERE p.pct >= 60 AND p.pct < 75), COUNT(*) FILTER (WHERE p.pct < 60), " +
+            STREAK + ", MAX(CAST(p.submit_date AS date)), ? " +
+            "FROM (SELECT r.submit_date, " + PCT + " AS pct " + FINALIZED + ") p " +
+            "ON CONFLICT (user_id) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+    @Autowired
+    private UserPracticeStatsRepo userPracticeStatsRepo;
+
+    @Transactional
+    public UserPracticeStats getStats(Long userId) {
+        return userPracticeStatsRepo.findById(userId).orElseGet(() -> {
+            attemptReadModels.lock(AttemptReadModels.PRACTICE_STATS, userId);
+            jdbcTemplate.update(BUILD, userId, userId, userId, Timestamp.valueOf(LocalDateTime.now()), userId);
+            return userPracticeStatsRepo.findById(userId).orElseThrow();
+        });
+    }
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.PRACTICE_STATS;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        // Serialized with the first build of the row; false when this attempt was applied already
+        attemptReadModels.lock(AttemptReadModels.PRACTICE_STATS, event.studentId());
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.PRACTICE_STATS)) return;
+
+        // No row yet: the first dashboard read builds it, this attempt included
+        UserPracticeStats stats = userPracticeStatsRepo.findById(event.studentId()).orElse(null);
+        if (stats == null) return;
+
+        double pct = event.totalMarks() != null && event.totalMarks() > 0
+                ? (double) event.scoreObtained() / event.totalMarks() * 100
+                : 0;
+        addAttempt(stats, pct, event.submitDate() != null ? event.submitDate().toLocalDate() : LocalDate.now());
+        stats.setUpdatedAt(LocalDateTime.now());
+        userPracticeStatsRepo.save(stats);
+    }
+
+    // A submit on the day after lastActiveDay extends the streak, a later one restarts it.
+    // Attempts finalized for an earlier day (deadline auto-submits) leave it alone.
+    static void addAttempt(UserPracticeStats stats, double pct, LocalDate day) {
+        stats.setCompletedCount(stats.getCompletedCount() + 1);
+        stats.setPctSum(stats.getPctSum() + pct);
+        if (pct >= 90) stats.setBandExcellent(stats.getBandExcellent() + 1);
+        else if (pct >= 75) stats.setBandGood(stats.getBandGood() + 1);
+        else if (pct >= 60) stats.setBandAverage(stats.getBandAverage() + 1);
+        else stats.setBandPoor(stats.getBandPoor() + 1);
+
+        LocalDate last = stats.getLastActiveDay();
+        if (last == null || day.isAfter(last.plusDays(1))) {
+            stats.setCurrentStreak(1);
+        } else if (day.equals(last.plusDays(1))) {
+            stats.setCurrentStreak(stats.getCurrentStreak() + 1);
+        }
+        if (last == null || day.isAfter(last)) {
+            stats.setLastActiveDay(day);
+        }
+    }
+
+    // The stored streak only counts while the user was active today or yesterday
+    public static int currentStreak(UserPracticeStats stats, LocalDate today) {
+        LocalDate last = stats.getLastActiveDay();
+        if (last == null || last.isBefore(today.minusDays(1))) return 0;
+        return stats.getCurrentStreak();
+    }
+}
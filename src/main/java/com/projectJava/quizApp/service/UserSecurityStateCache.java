@@ -0,0 +1,73 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.model.Customer;
+import com.projectJava.quizApp.repo.UserRepo;
+import com.projectJava.quizApp.utility.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The few account fields the JWT filter must check on every request (password change time,
+ * soft deletion, verification, role), cached so an authenticated request needs no user query.
+ * A token whose role claim no longer matches is rejected, so a role change takes effect on the
+ * next request; the client then refreshes and gets a token with the current role.
+ * Call evict() wherever one of these fields changes.
+ */
+@Service
+public class UserSecurityStateCache {
+
+    private static final int MAX_USERS = 10_000;
+
+    // Safety net for changes made outside this instance (other nodes, manual SQL)
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private UserRepo userRepo;
+
+    private final BoundedCache<String, State> cache = new BoundedCache<>(MAX_USERS, TTL);
+
+    // Null when the user does not exist
+    public State get(String username) {
+        return cache.get(username, name -> userRepo.findByUsername(name).map(State::of).orElse(null));
+    }
+
+    public void evict(String username) {
+        if (username == null) return;
+        cache.invalidate(username);
+
+        // Evict again after commit, so a request racing with the transaction cannot re-cache the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public record State(Long id, Instant passwordChangedAt, Instant deletedAt, boolean verified, String role) {
+
+        static State of(Customer c) {
+            return new State(c.getId(), c.getPasswordChangedAt(), c.getDeletedAt(), Boolean.TRUE.equals(c.getVerified()),
+                    c.getRole());
+        }
+
+        // The token's role claim carries the role without its ROLE_ prefix (see JWTUtil.generateToken)
+        public boolean hasRole(String tokenRole) {
+            if (role == null || tokenRole == null) return false;
+            String current = role.startsWith("ROLE_") ? role.substring(5) : role;
+            return current.equalsIgnoreCase(tokenRole);
+        }
+
+        // Tokens issued before the last password change are no longer valid
+        public boolean isIssuedAfterPasswordChange(Instant tokenIssuedAt) {
+            return passwordChangedAt == null || tokenIssuedAt == null || !tokenIssuedAt.isBefore(passwordChangedAt);
+        }
+    }
+}
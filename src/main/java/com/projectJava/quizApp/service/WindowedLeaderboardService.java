@@ -0,0 +1,207 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.LeaderboardDto;
+import com.projectJava.quizApp.event.QuizAttemptFinalizedEvent;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leaderboards for a time window, optionally for one country and/or subject, served from
+ * daily and weekly rollup buckets (leaderboard_bucket). Each public-quiz submission by a USER
+ * adds to one daily and one weekly bucket; a window sums its weeks plus the odd days before the
+ * first Monday, so at most about 20 buckets per player are read. Old buckets are purged daily.
+ */
+@Service
+public class WindowedLeaderboardService implements AttemptReadModels.Model {
+
+    private static final Logger log = LoggerFactory.getLogger(WindowedLeaderboardService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_WINDOW_DAYS = 90;
+
+    private static final String COUNTRY = "COALESCE(c.country, 'GLOBAL')";
+    private static final String SUBJECT = "COALESCE(q.subject, 'General')";
+
+    // The attempt's day and week buckets in one statement; nothing when it is not a USER on a public quiz
+    private static final String ADD_ATTEMPT =
+            "INSERT INTO leaderboard_bucket (period_type, period_start, country, subject, user_id, score, attempts) " +
+            "SELECT p.period_type, p.period_start, " + COUNTRY + ", " + SUBJECT + ", c.id, ?, 1 " +
+            "FROM customer c JOIN quiz q ON q.id = ? " +
+            "CROSS JOIN (VALUES ('D', CAST(? AS date)), ('W', CAST(? AS date))) AS p(period_type, period_start) " +
+            "WHERE c.id = ? AND c.role = 'USER' AND q.batch_id IS NULL " +
+            "ON CONFLICT (period_type, period_start, country, subject, user_id) DO UPDATE SET " +
+            "score = leaderboard_bucket.score + EXCLUDED.score, attempts = leaderboard_bucket.attempts + 1";
+
+    private static final String FINALIZED_PUBLIC =
+            "FROM qresult r JOIN customer c ON c.id = r.student_id JOIN quiz q ON q.id = r.quiz_id " +
+            "WHERE c.role = 'USER' AND q.batch_id IS NULL AND r.submit_date IS NOT NULL " +
+            "AND COALESCE(r.grading_pending, false) = false AND " +
+            AttemptReadModels.applied(AttemptReadModels.LEADERBOARD_BUCKETS) + " AND r.submit_date >= ? ";
+
+    // Whole table, one lock key: the backfill excludes every listener, listeners only exclude the backfill
+    private static final long ALL_BUCKETS = 0;
+
+    private static final String BACKFILL =
+            "INSERT INTO leaderboard_bucket (period_type, period_start, country, subject, user_id, score, attempts) " +
+            "SELECT 'D', CAST(r.submit_date AS date), " + COUNTRY + ", " + SUBJECT + ", c.id, COALESCE(SUM(r.score_obtained), 0), COUNT(*) " +
+            FINALIZED_PUBLIC + "GROUP BY 2, 3, 4, 5 " +
+            "UNION ALL " +
+            "SELECT 'W', CAST(date_trunc('week', r.submit_date) AS date), " + COUNTRY + ", " + SUBJECT + ", c.id, COALESCE(SUM(r.score_obtained), 0), COUNT(*) " +
+            FINALIZED_PUBLIC + "GROUP BY 2, 3, 4, 5 " +
+            "ON CONFLICT (period_type, period_start, country, subject, user_id) DO UPDATE SET " +
+            "score = EXCLUDED.score, attempts = EXCLUDED.attempts";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AttemptReadModels attemptReadModels;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Daily buckets must outlive the longest window, since its first days may come from them
+    @Value("${leaderboard.daily-retention-days:100}")
+    private int dailyRetentionDays;
+
+    @Value("${leaderboard.weekly-retention-weeks:60}")
+    private int weeklyRetentionWeeks;
+
+    // --- Read side ---
+
+    // period: today, week (this calendar week), last7, last30 or last90
+    public List<LeaderboardDto> getLeaderboard(String period, String country, String subject, int page, int size) {
+        if (page < 0) throw new RuntimeException("page must not be negative");
+        if (size < 1 || size > MAX_PAGE_SIZE) throw new RuntimeException("size must be between 1 and " + MAX_PAGE_SIZE);
+
+        LocalDate today = LocalDate.now();
+        LocalDate from = switch (period == null ? "" : period.toLowerCase()) {
+            case "today" -> today;
+            case "week" -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "last7" -> today.minusDays(6);
+            case "last30" -> today.minusDays(29);
+            case "last90" -> today.minusDays(MAX_WINDOW_DAYS - 1);
+            default -> throw new RuntimeException("period must be one of today, week, last7, last30, last90");
+        };
+
+        // 1. Buckets covering [from, today]: weeks from the weekly rows (the current one holds nothing
+        // beyond today), the days before the first Monday from the daily rows
+        List<Object> args = new ArrayList<>();
+        StringBuilder where = new StringBuilder("(");
+        LocalDate firstWeek = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        LocalDate lastWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (!lastWeek.isBefore(firstWeek)) {
+            where.append("(period_type = 'W' AND period_start BETWEEN ? AND ?)");
+            where.append(" OR (period_type = 'D' AND period_start BETWEEN ? AND ?)");
+            args.add(Date.valueOf(firstWeek));
+            args.add(Date.valueOf(lastWeek));
+            args.add(Date.valueOf(from));
+            args.add(Date.valueOf(firstWeek.minusDays(1)));
+        } else {
+            where.append("period_type = 'D' AND period_start BETWEEN ? AND ?");
+            args.add(Date.valueOf(from));
+            args.add(Date.valueOf(today));
+        }
+        where.append(")");
+
+        // 2. Optional filters
+        if (country != null && !country.isBlank()) {
+            where.append(" AND UPPER(country) = UPPER(?)");
+            args.add(country.trim());
+        }
+        if (subject != null && !subject.isBlank()) {
+            where.append(" AND LOWER(subject) = LOWER(?)");
+            args.add(subject.trim());
+        }
+        args.add(size);
+        args.add((long) page * size);
+
+        // 3. Sum per player, rank, and only then look up the names of one page
+        String sql = "WITH s AS (SELECT user_id, SUM(score) AS score FROM leaderboard_bucket WHERE " + where +
+                " GROUP BY user_id ORDER BY SUM(score) DESC, user_id LIMIT ? OFFSET ?) " +
+                "SELECT s.user_id, c.username, c.country, s.score FROM s JOIN customer c ON c.id = s.user_id " +
+                "ORDER BY s.score DESC, s.user_id";
+
+        int firstRank = page * size + 1;
+        return jdbcTemplate.query(sql, (rs, i) -> {
+            LeaderboardDto dto = new LeaderboardDto(rs.getString("username"), rs.getLong("score"), rs.getString("country"));
+            dto.setId(rs.getLong("user_id"));
+            dto.setRank(firstRank + i);
+            return dto;
+        }, args.toArray());
+    }
+
+    // --- Write side (after the submit has committed, in its own transaction; see AttemptReadModels) ---
+
+    @Override
+    public int readModelBit() {
+        return AttemptReadModels.LEADERBOARD_BUCKETS;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(AttemptReadModels.LISTENER_ORDER)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onAttemptFinalized(QuizAttemptFinalizedEvent event) {
+        attemptReadModels.lockShared(AttemptReadModels.LEADERBOARD_BUCKETS, ALL_BUCKETS);
+        if (!attemptReadModels.claim(event.resultId(), AttemptReadModels.LEADERBOARD_BUCKETS)) return;
+
+        LocalDate day = event.submitDate() != null ? event.submitDate().toLocalDate() : LocalDate.now();
+        LocalDate week = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        jdbcTemplate.update(ADD_ATTEMPT, event.scoreObtained(), event.quizId(),
+                Date.valueOf(day), Date.valueOf(week), event.studentId());
+    }
+
+    // --- Maintenance ---
+
+    // Until a day before today has a bucket, roll up the retained history. Submissions may already be
+    // arriving, so the roll-up holds the lock their listeners share and sets each bucket to its full total:
+    // running it again, or after some listeners, gives the same buckets.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            LocalDate today = LocalDate.now();
+            Integer history = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM leaderboard_bucket " +
+                    "WHERE period_type = 'D' AND period_start < ? LIMIT 1) t", Integer.class, Date.valueOf(today));
+            if (history != null && history == 0) {
+                Date dailyFrom = Date.valueOf(today.minusDays(dailyRetentionDays));
+                Date weeklyFrom = Date.valueOf(today.minusWeeks(weeklyRetentionWeeks).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+                Integer rows = transactionTemplate.execute(status -> {
+                    attemptReadModels.lock(AttemptReadModels.LEADERBOARD_BUCKETS, ALL_BUCKETS);
+                    return jdbcTemplate.update(BACKFILL, dailyFrom, weeklyFrom);
+                });
+                log.info("Backfilled {} leaderboard buckets", rows);
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill leaderboard buckets: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${leaderboard.bucket-purge-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        LocalDate today = LocalDate.now();
+        int days = jdbcTemplate.update("DELETE FROM leaderboard_bucket WHERE period_type = 'D' AND period_start < ?",
+                Date.valueOf(today.minusDays(dailyRetentionDays)));
+        int weeks = jdbcTemplate.update("DELETE FROM leaderboard_bucket WHERE period_type = 'W' AND period_start < ?",
+                Date.valueOf(today.minusWeeks(weeklyRetentionWeeks)));
+        if (days + weeks > 0) {
+            log.info("Purged {} daily and {} weekly leaderboard buckets", days, weeks);
+        }
+    }
+}
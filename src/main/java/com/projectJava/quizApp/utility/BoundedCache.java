@@ -0,0 +1,146 @@
+package com.projectJava.quizApp.utility;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small thread-safe LRU cache with an optional time-to-live.
+ * Once maxSize is reached the least recently used entry is dropped.
+ * A value loaded through get(key, loader) is only cached if the key was not invalidated while it loaded.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis; // 0 = entries never expire
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    // Loads in flight, one version per key; invalidating the key drops it, so the load's result is not cached
+    private final Map<K, Long> loads = new HashMap<>();
+    private long loadVersion;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = (ttl == null) ? 0 : ttl.toMillis();
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired()) {
+            map.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    // Loads outside the lock so a slow loader never blocks readers of other keys
+    public V get(K key, Function<K, V> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    // Values the predicate rejects are returned but not cached
+    public V get(K key, Function<K, V> loader, Predicate<V> cacheable) {
+        long version;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) return cached;
+            version = ++loadVersion;
+            loads.put(key, version);
+        }
+
+        V value = null;
+        try {
+            value = loader.apply(key);
+            return value;
+        } finally {
+            synchronized (this) {
+                // A later load of the same key, or an invalidation, has replaced this version
+                if (loads.remove(key, version) && value != null && cacheable.test(value)) {
+                    put(key, value);
+                }
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    // Per-entry expiry, for values that carry their own lifetime
+    public synchronized void put(K key, V value, long ttlMillis) {
+        long expiresAt = (ttlMillis > 0) ? System.currentTimeMillis() + ttlMillis : 0;
+        map.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public synchronized void invalidate(K key) {
+        loads.remove(key);
+        if (map.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        // Values still loading cannot be tested yet
+        loads.clear();
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value)) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        loads.clear();
+        evictions.add(map.size());
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long hitCount() { return hits.sum(); }
+    public long missCount() { return misses.sum(); }
+    public long evictionCount() { return evictions.sum(); }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired() {
+            return expiresAt > 0 && System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.projectJava.quizApp.utility;
 
+import com.projectJava.quizApp.model.AuthUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -10,8 +12,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
@@ -25,6 +31,13 @@ public class JWTUtil {
     private Key key;
     private final long jwtExpirationMs = 30*60*1000L;
 
+    // Immutable and thread-safe, so one instance serves every request
+    private JwtParser parser;
+
+    // Verified claims by SHA-256 of the token; each entry expires together with its token
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private final BoundedCache<String, Claims> claimsCache = new BoundedCache<>(MAX_CACHED_TOKENS);
+
     @PostConstruct
     public void init(){
         if(base64Secret != null && !base64Secret.isBlank()){
@@ -34,6 +47,9 @@ public class JWTUtil {
         else{
             this.key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
         }
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails){
@@ -41,10 +57,13 @@ public class JWTUtil {
         if(authority.startsWith("ROLE_")){
             authority = authority.substring(5);
         }
+        // uid lets the filter hand services the caller's id without a user lookup
+        Long userId = (userDetails instanceof AuthUser authUser) ? authUser.getId() : null;
         Date now = new Date();
         return Jwts.builder()
                 .setSubject(userDetails.getUsername())
                 .claim("role",authority)
+                .claim("uid",userId)
                 .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(new Date(System.currentTimeMillis()+jwtExpirationMs))
@@ -52,12 +71,30 @@ public class JWTUtil {
                 .compact();
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Verifies signature and expiry once per token; later calls are served from the cache
+    public Claims extractAllClaims(String token){
+        String cacheKey = sha256(token);
+        Claims cached = claimsCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody(); // throws for a bad or expired token
+        long ttlMillis = claims.getExpiration() == null ? 0
+                : claims.getExpiration().getTime() - System.currentTimeMillis();
+        if (ttlMillis > 0) {
+            claimsCache.put(cacheKey, claims, ttlMillis);
+        }
+        return claims;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public <T> T extractClaim(String token, Function<Claims,T> claimResolver){
@@ -74,6 +111,10 @@ public class JWTUtil {
     public String extractRole(String token) {
         return extractClaim(token, claims -> claims.get("role", String.class));
     }
+    // Null for tokens issued before the uid claim existed
+    public Long extractUserId(String token) {
+        return extractClaim(token, claims -> claims.get("uid", Long.class));
+    }
 
     private Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
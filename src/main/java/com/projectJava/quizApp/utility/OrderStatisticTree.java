@@ -0,0 +1,141 @@
+package com.projectJava.quizApp.utility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set with positional access: add, remove, indexOf and get(index) are all O(log n)
+ * (a treap whose nodes carry their subtree size). Not thread-safe; callers synchronize.
+ */
+public class OrderStatisticTree<T> {
+
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<T> root;
+
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    // False when an equal element is already present
+    public boolean add(T value) {
+        if (indexOf(value) >= 0) return false;
+        Split<T> parts = split(root, value);
+        root = merge(merge(parts.less(), new Node<>(value, random.nextInt())), parts.rest());
+        return true;
+    }
+
+    public boolean remove(T value) {
+        if (indexOf(value) < 0) return false;
+        root = remove(root, value);
+        return true;
+    }
+
+    // Zero-based position in sort order, or -1 when absent
+    public int indexOf(T value) {
+        int index = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c == 0) return index + size(node.left);
+            if (c < 0) {
+                node = node.left;
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    public T get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(index);
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index == leftSize) return node.value;
+            if (index < leftSize) {
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Up to count elements starting at position from
+    public List<T> range(int from, int count) {
+        List<T> out = new ArrayList<>();
+        int end = Math.min(size(), Math.max(from, 0) + Math.max(count, 0));
+        for (int i = Math.max(from, 0); i < end; i++) {
+            out.add(get(i));
+        }
+        return out;
+    }
+
+    // --- Treap internals ---
+
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private record Split<T>(Node<T> less, Node<T> rest) {
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <T> Node<T> update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    // Elements < value on the left, >= value on the right
+    private Split<T> split(Node<T> node, T value) {
+        if (node == null) return new Split<>(null, null);
+        if (comparator.compare(node.value, value) < 0) {
+            Split<T> parts = split(node.right, value);
+            node.right = parts.less();
+            return new Split<>(update(node), parts.rest());
+        }
+        Split<T> parts = split(node.left, value);
+        node.left = parts.rest();
+        return new Split<>(parts.less(), update(node));
+    }
+
+    // Every element of a sorts before every element of b
+    private Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return update(a);
+        }
+        b.left = merge(a, b.left);
+        return update(b);
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        int c = comparator.compare(value, node.value);
+        if (c == 0) return merge(node.left, node.right);
+        if (c < 0) node.left = remove(node.left, value);
+        else node.right = remove(node.right, value);
+        return update(node);
+    }
+}
@@ -0,0 +1,112 @@
+package com.projectJava.quizApp.repo;
+
+import com.projectJava.quizApp.DTO.QuizResultAggregates;
+import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.model.Customer;
+import com.projectJava.quizApp.model.QResult;
+import com.projectJava.quizApp.model.Quiz;
+import com.projectJava.quizApp.service.BatchAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class QResultRepoTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    // Ascending order per sort key of the three attempts below
+    private static final Map<String, List<String>> ASCENDING = Map.of(
+            "name", List.of("alice", "bob", "carol"),
+            "score", List.of("bob", "carol", "alice"),
+            "percentage", List.of("bob", "carol", "alice"),
+            "submittedAt", List.of("alice", "carol", "bob"),
+            "timeTaken", List.of("carol", "alice", "bob"));
+
+    @Autowired
+    private QResultRepo qResultRepo;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void resultRowsSortByEveryAllowedKey() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Sorting");
+        quiz.setStatus(QuizStatus.PUBLISHED);
+        quiz.setTotalMarks(10);
+        em.persist(quiz);
+
+        attempt(quiz, "alice", 9, T0.plusHours(1), 300);
+        attempt(quiz, "bob", 5, T0.plusHours(3), 900);
+        attempt(quiz, "carol", 7, T0.plusHours(2), 60);
+        em.flush();
+        em.clear();
+
+        assertEquals(ASCENDING.keySet(), BatchAnalyticsService.SORT_COLUMNS.keySet());
+        for (String key : BatchAnalyticsService.SORT_COLUMNS.keySet()) {
+            List<String> descending = new ArrayList<>(ASCENDING.get(key));
+            Collections.reverse(descending);
+
+            assertEquals(ASCENDING.get(key), names(quiz, key, Sort.Direction.ASC), key + " asc");
+            assertEquals(descending, names(quiz, key, Sort.Direction.DESC), key + " desc");
+        }
+    }
+
+    @Test
+    void resultRowsArePaged() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Paging");
+        quiz.setStatus(QuizStatus.PUBLISHED);
+        quiz.setTotalMarks(10);
+        em.persist(quiz);
+
+        attempt(quiz, "dave", 4, T0, 100);
+        attempt(quiz, "erin", 6, T0, 100);
+        attempt(quiz, "frank", 8, T0, 100);
+        em.flush();
+        em.clear();
+
+        Sort order = BatchAnalyticsService.resultOrder("name", Sort.Direction.ASC);
+        List<QuizResultAggregates.ResultRow> page = qResultRepo.findResultRowsByQuiz(quiz.getId(), PageRequest.of(1, 2, order));
+        assertEquals(1, page.size());
+        assertEquals("frank", page.get(0).getStudentName());
+        assertEquals(100L, page.get(0).getTimeTaken());
+    }
+
+    private List<String> names(Quiz quiz, String key, Sort.Direction direction) {
+        PageRequest page = PageRequest.of(0, 10, BatchAnalyticsService.resultOrder(key, direction));
+        return qResultRepo.findResultRowsByQuiz(quiz.getId(), page).stream()
+                .map(QuizResultAggregates.ResultRow::getStudentName)
+                .toList();
+    }
+
+    private void attempt(Quiz quiz, String name, int score, LocalDateTime submitDate, int secondsTaken) {
+        Customer student = new Customer();
+        student.setUsername(name);
+        student.setEmail(name + "@example.com");
+        student.setRole("STUDENT");
+        student.setVerified(true);
+        em.persist(student);
+
+        QResult result = new QResult();
+        result.setStudent(student);
+        result.setQuiz(quiz);
+        result.setScoreObtained(score);
+        result.setTotalMarks(10);
+        result.setStartTime(submitDate.minusSeconds(secondsTaken));
+        result.setSubmitDate(submitDate);
+        em.persist(result);
+    }
+}
@@ -0,0 +1,56 @@
+package com.projectJava.quizApp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemAnalysisServiceTest {
+
+    @Test
+    void pointBiserialMatchesTheTextbookFormula() {
+        // Scores 100 and 80 got the item right, 40 and 20 did not: mean 60, sd sqrt(1000), p = 0.5
+        assertEquals(0.949, ItemAnalysisService.pointBiserial(4, 60, Math.sqrt(1000), 2, 180));
+        // Only the weakest student got it right
+        assertEquals(-0.73, ItemAnalysisService.pointBiserial(4, 60, Math.sqrt(1000), 1, 20));
+    }
+
+    @Test
+    void pointBiserialIsUndefinedWithoutSpread() {
+        assertNull(ItemAnalysisService.pointBiserial(0, 0, 0, 0, 0));
+        assertNull(ItemAnalysisService.pointBiserial(4, 60, 10, 0, 0));
+        assertNull(ItemAnalysisService.pointBiserial(4, 60, 10, 4, 240));
+        assertNull(ItemAnalysisService.pointBiserial(4, 60, 0, 2, 120));
+    }
+
+    @Test
+    void noFlagsBelowTheMinimumAttempts() {
+        int n = ItemAnalysisService.MIN_ATTEMPTS_FOR_FLAGS - 1;
+        assertEquals(List.of(), ItemAnalysisService.flags(n, 1.0, -0.5, 0, 5));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, null, null, 0, 0));
+    }
+
+    @Test
+    void difficultyBands() {
+        assertEquals(List.of("TOO_EASY"), ItemAnalysisService.flags(20, 0.9, 0.5, 18, 1));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, 0.89, 0.5, 17, 1));
+        assertEquals(List.of("TOO_HARD"), ItemAnalysisService.flags(20, 0.3, 0.5, 6, 4));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, 0.31, 0.5, 6, 4));
+    }
+
+    @Test
+    void discriminationBands() {
+        assertEquals(List.of("NEGATIVE_DISCRIMINATION"), ItemAnalysisService.flags(20, 0.5, -0.01, 10, 4));
+        assertEquals(List.of("LOW_DISCRIMINATION"), ItemAnalysisService.flags(20, 0.5, 0.0, 10, 4));
+        assertEquals(List.of("LOW_DISCRIMINATION"), ItemAnalysisService.flags(20, 0.5, 0.19, 10, 4));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, 0.5, 0.2, 10, 4));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, 0.5, null, 10, 4));
+    }
+
+    @Test
+    void distractorPickedMoreThanTheKeyIsMisleading() {
+        assertEquals(List.of("TOO_HARD", "MISLEADING_OPTION"), ItemAnalysisService.flags(20, 0.25, 0.4, 5, 9));
+        assertEquals(List.of(), ItemAnalysisService.flags(20, 0.5, 0.4, 5, 5));
+    }
+}
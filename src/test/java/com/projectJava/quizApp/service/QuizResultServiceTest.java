@@ -0,0 +1,108 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.QuizResultDto;
+import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.model.Customer;
+import com.projectJava.quizApp.model.QResult;
+import com.projectJava.quizApp.model.Quiz;
+import com.projectJava.quizApp.repo.QResultRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({QuizService.class, QuizResultService.class, AnswerKeyService.class})
+class QuizResultServiceTest {
+
+    // Collaborators that take no part in closing or listing attempts
+    @MockitoBean
+    private ExamPaperService examPaperService;
+    @MockitoBean
+    private AttemptSessionStore attemptSessionStore;
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizResultService quizResultService;
+    @Autowired
+    private QResultRepo qResultRepo;
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void pendingFallbackAttemptIsListedAsPending() {
+        Customer student = student("fallback-student");
+        Quiz quiz = quiz();
+
+        // Async submit without a start row: the fallback creates the attempt, the queue saves it ungraded
+        QResult closed = quizService.closeAttempt(quiz.getId(), student.getUsername(), "key-1").orElseThrow();
+        closed.setGradingPending(true);
+        qResultRepo.save(closed);
+        em.flush();
+        em.clear();
+
+        assertEquals(0, qResultRepo.findById(closed.getId()).orElseThrow().getScoreObtained());
+
+        Page<QuizResultDto> attempts = quizResultService.getMyAttempts(student.getUsername(), 0, 10);
+        assertEquals(1, attempts.getTotalElements());
+        QuizResultDto dto = attempts.getContent().get(0);
+        assertEquals(closed.getId(), dto.getId());
+        assertEquals("PENDING", dto.getResultStatus());
+        assertNull(dto.getScore());
+
+        assertTrue(quizResultService.getMistakeResults(student.getUsername()).isEmpty());
+        assertEquals("PENDING", quizResultService.getResultBySubmissionId(closed.getId()).getResultStatus());
+    }
+
+    @Test
+    void deadLetteredAttemptWithoutScoreIsListedAsFailed() {
+        Customer student = student("failed-student");
+        Quiz quiz = quiz();
+
+        // Rows queued before the fallback set a score have none at all
+        QResult result = new QResult();
+        result.setStudent(student);
+        result.setQuiz(quiz);
+        result.setStartTime(LocalDateTime.now().minusMinutes(5));
+        result.setSubmitDate(LocalDateTime.now());
+        result.setTotalMarks(10);
+        result.setGradingPending(true);
+        result.setGradingFailed(true);
+        em.persist(result);
+        em.flush();
+        em.clear();
+
+        QuizResultDto dto = quizResultService.getMyAttempts(student.getUsername(), 0, 10).getContent().get(0);
+        assertEquals("GRADING_FAILED", dto.getResultStatus());
+        assertTrue(quizResultService.getMistakeResults(student.getUsername()).isEmpty());
+    }
+
+    private Customer student(String username) {
+        Customer student = new Customer();
+        student.setUsername(username);
+        student.setRole("USER");
+        student.setVerified(true);
+        em.persist(student);
+        return student;
+    }
+
+    private Quiz quiz() {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Async listing");
+        quiz.setSubject("Testing");
+        quiz.setStatus(QuizStatus.PUBLISHED);
+        quiz.setTimerInMin(30);
+        quiz.setTotalMarks(10);
+        quiz.setPassingMarks(5);
+        em.persist(quiz);
+        return quiz;
+    }
+}
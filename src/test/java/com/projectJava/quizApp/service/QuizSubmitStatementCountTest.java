@@ -0,0 +1,112 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.DTO.QuizResultDto;
+import com.projectJava.quizApp.enums.QuizStatus;
+import com.projectJava.quizApp.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({QuizService.class, AnswerKeyService.class})
+class QuizSubmitStatementCountTest {
+
+    private static final int QUESTION_COUNT = 100;
+
+    // Submit with a start row and no idempotency key:
+    //   select quiz, select student, select open attempt, closeIfOpen update,   4
+    //   select questions for the answer key (cold cache),                      1
+    //   submitted_answers_seq calls (pooled, allocationSize 50, 100 ids),      up to 3
+    //   two insert batches of 50 (jdbc.batch_size), one qresult update         3
+    // = 11. Any statement per answer pushes this past 100.
+    private static final long MAX_STATEMENTS = 11;
+
+    // Collaborators that take no part in grading
+    @MockitoBean
+    private ExamPaperService examPaperService;
+    @MockitoBean
+    private AttemptSessionStore attemptSessionStore;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Test
+    void submitQuizIssuesAConstantNumberOfStatements() {
+        Customer student = new Customer();
+        student.setUsername("batch-student");
+        student.setRole("STUDENT");
+        student.setVerified(true);
+        em.persist(student);
+
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Statement count");
+        quiz.setStatus(QuizStatus.PUBLISHED);
+        quiz.setTimerInMin(60);
+        quiz.setTotalMarks(QUESTION_COUNT);
+        quiz.setPassingMarks(QUESTION_COUNT / 2);
+        em.persist(quiz);
+
+        List<Response> responses = new ArrayList<>();
+        for (int i = 0; i < QUESTION_COUNT; i++) {
+            Question q = new Question();
+            q.setQuestionTitle("Q" + i);
+            q.setOption1("A");
+            q.setOption2("B");
+            q.setOption3("C");
+            q.setOption4("D");
+            q.setRightAnswer("A");
+            q.setMarks(1);
+            q.setQuiz(quiz);
+            em.persist(q);
+
+            Response r = new Response();
+            r.setId(q.getId());
+            r.setResponse(i % 2 == 0 ? "A" : "B");
+            responses.add(r);
+        }
+
+        QResult attempt = new QResult();
+        attempt.setStudent(student);
+        attempt.setQuiz(quiz);
+        attempt.setStartTime(LocalDateTime.now());
+        attempt.setScoreObtained(0);
+        attempt.setTotalMarks(QUESTION_COUNT);
+        em.persist(attempt);
+
+        em.flush();
+        em.clear();
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        QuizResultDto result = quizService.submitQuiz(quiz.getId(), responses, student.getUsername());
+        em.flush();
+
+        long statements = stats.getPrepareStatementCount();
+        assertEquals(QUESTION_COUNT / 2, result.getScoreObtained());
+        assertTrue(statements <= MAX_STATEMENTS,
+                "submitQuiz issued " + statements + " statements for " + QUESTION_COUNT + " answers");
+    }
+}
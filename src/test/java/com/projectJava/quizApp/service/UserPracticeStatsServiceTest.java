@@ -0,0 +1,75 @@
+package com.projectJava.quizApp.service;
+
+import com.projectJava.quizApp.model.UserPracticeStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPracticeStatsServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    private static UserPracticeStats activeOn(LocalDate day, int streak) {
+        UserPracticeStats stats = new UserPracticeStats();
+        stats.setLastActiveDay(day);
+        stats.setCurrentStreak(streak);
+        return stats;
+    }
+
+    @Test
+    void firstAttemptStartsAStreak() {
+        UserPracticeStats stats = new UserPracticeStats();
+        UserPracticeStatsService.addAttempt(stats, 80, MONDAY);
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(MONDAY, stats.getLastActiveDay());
+    }
+
+    @Test
+    void sameDayKeepsTheStreak() {
+        UserPracticeStats stats = activeOn(MONDAY, 3);
+        UserPracticeStatsService.addAttempt(stats, 80, MONDAY);
+        assertEquals(3, stats.getCurrentStreak());
+        assertEquals(MONDAY, stats.getLastActiveDay());
+    }
+
+    @Test
+    void nextDayExtendsTheStreak() {
+        UserPracticeStats stats = activeOn(MONDAY, 3);
+        UserPracticeStatsService.addAttempt(stats, 80, MONDAY.plusDays(1));
+        assertEquals(4, stats.getCurrentStreak());
+        assertEquals(MONDAY.plusDays(1), stats.getLastActiveDay());
+    }
+
+    @Test
+    void gapRestartsTheStreak() {
+        UserPracticeStats stats = activeOn(MONDAY, 3);
+        UserPracticeStatsService.addAttempt(stats, 80, MONDAY.plusDays(2));
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(MONDAY.plusDays(2), stats.getLastActiveDay());
+    }
+
+    @Test
+    void backDatedAutoSubmitLeavesTheStreakAlone() {
+        UserPracticeStats stats = activeOn(MONDAY, 3);
+        UserPracticeStatsService.addAttempt(stats, 80, MONDAY.minusDays(1));
+        assertEquals(3, stats.getCurrentStreak());
+        assertEquals(MONDAY, stats.getLastActiveDay());
+        assertEquals(1, stats.getCompletedCount());
+    }
+
+    @Test
+    void eachAttemptLandsInExactlyOneBand() {
+        UserPracticeStats stats = new UserPracticeStats();
+        for (double pct : new double[] {100, 90, 89.9, 75, 74.9, 60, 59.9, 0}) {
+            UserPracticeStatsService.addAttempt(stats, pct, MONDAY);
+        }
+        assertEquals(2, stats.getBandExcellent());
+        assertEquals(2, stats.getBandGood());
+        assertEquals(2, stats.getBandAverage());
+        assertEquals(2, stats.getBandPoor());
+        assertEquals(8, stats.getCompletedCount());
+        assertEquals(549.7, stats.getPctSum(), 1e-9);
+    }
+}
@@ -0,0 +1,76 @@
+package com.projectJava.quizApp.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void loadedValueIsCached() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1L, k -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(1L, k -> "v" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void valueLoadedBeforeAnInvalidationIsNotCached() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        // The key changes while the old value is being read
+        assertEquals("old", cache.get(1L, k -> {
+            cache.invalidate(k);
+            return "old";
+        }));
+        assertNull(cache.get(1L));
+        assertEquals("new", cache.get(1L, k -> "new"));
+    }
+
+    @Test
+    void invalidatingAnotherKeyKeepsTheLoad() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        cache.get(1L, k -> {
+            cache.invalidate(2L);
+            return "v";
+        });
+        assertEquals("v", cache.get(1L));
+    }
+
+    @Test
+    void failedLoadLeavesNothingBehind() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, k -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("v", cache.get(1L, k -> "v"));
+        assertEquals("v", cache.get(1L));
+    }
+
+    @Test
+    void rejectedValueIsReturnedButNotCached() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        assertEquals("partial", cache.get(1L, k -> "partial", v -> !v.equals("partial")));
+        assertNull(cache.get(1L));
+        assertEquals("full", cache.get(1L, k -> "full", v -> !v.equals("partial")));
+        assertEquals("full", cache.get(1L));
+    }
+
+    @Test
+    void bulkInvalidationCancelsLoadsInFlight() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10);
+
+        cache.get(1L, k -> {
+            cache.invalidateIf((key, value) -> false);
+            return "old";
+        });
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,63 @@
+package com.projectJava.quizApp.utility;
+
+import com.projectJava.quizApp.model.AuthUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling per authenticated request: subject, issued-at, role and uid.
+ * Not a unit test (surefire skips it); run main() to get numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil();
+        jwtUtil.init(); // no secret configured -> random HS512 key
+        token = jwtUtil.generateToken(AuthUser.fromToken(42L, "bench-user", "STUDENT"));
+    }
+
+    // Before: a new parser and a full HMAC verification for each claim read
+    @Benchmark
+    public void parserPerClaim(Blackhole bh) {
+        for (int i = 0; i < 4; i++) {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(jwtUtil.getKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            bh.consume(claims);
+        }
+    }
+
+    // After: shared parser, token verified once and then served from the claims cache
+    @Benchmark
+    public void cachedClaims(Blackhole bh) {
+        bh.consume(jwtUtil.extractUsername(token));
+        bh.consume(jwtUtil.extractIssuedAt(token));
+        bh.consume(jwtUtil.extractRole(token));
+        bh.consume(jwtUtil.extractUserId(token));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
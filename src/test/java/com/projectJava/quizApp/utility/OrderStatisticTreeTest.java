@@ -0,0 +1,49 @@
+package com.projectJava.quizApp.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void positionsMatchASortedSetUnderRandomAddsAndRemoves() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), tree.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.get(i));
+            assertEquals(i, tree.indexOf(sorted.get(i)));
+        }
+        assertEquals(sorted.subList(10, 20), tree.range(10, 10));
+        assertEquals(-1, tree.indexOf(-1));
+    }
+
+    @Test
+    void rangePastTheEndIsTruncated() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int i = 0; i < 5; i++) tree.add(i);
+
+        assertEquals(List.of(3, 4), tree.range(3, 10));
+        assertTrue(tree.range(7, 3).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(5));
+    }
+}